@@ -0,0 +1,26 @@
+package com.qishenghe.munin.cache.job;
+
+/**
+ * 数据源变更通知（数据源可主动感知变更时实现，如监听快照目录）
+ * 注：会话创建时注册监听，数据源变更后由数据源回调触发刷新，无需等待周期调度
+ *
+ * @author qishenghe
+ * @date 2026/10/20 15:10
+ * @change 2026/10/20 15:10 by qishenghe for init
+ */
+public interface DictPackChangeNotifier {
+
+    /**
+     * 注册变更监听
+     *
+     * @param listener 变更回调
+     */
+    void onChange(Runnable listener);
+
+    /**
+     * 取消监听并释放监听占用的资源（线程、文件句柄等；会话关闭时调用）
+     */
+    default void close() {
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.qishenghe.munin.cache.job;
+
+import com.qishenghe.munin.cache.pack.DictPackBuilder;
+import com.qishenghe.munin.pool.MuninThreadPool;
+
+import java.util.Set;
+
+/**
+ * 字典缓存容器初始化Job（增量）
+ * 注：会话记录每次成功加载后的水位，下次刷新只推送水位之后的变更，并应用到该数据源上次的容器上
+ *
+ * @author qishenghe
+ * @date 2026/10/20 20:10
+ * @change 2026/10/20 20:10 by qishenghe for init
+ */
+public interface DictPackDeltaJob extends DictPackStreamJob {
+
+    /**
+     * 增量推送
+     *
+     * @param since 上次成功加载后的水位（null：全量加载，已删除的数据直接忽略）【null_maybe】
+     * @param delta 增量接收器（变更数据推送为实体，删除数据调用delete；并发推送时需线程安全）
+     * @param muninThreadPool 会话线程池【null_maybe】
+     * @return 本次加载后的水位（null：不支持增量，下次仍全量加载）【null_maybe】
+     */
+    Object streamDelta(Object since, DictPackBuilder.Delta delta, MuninThreadPool muninThreadPool);
+
+    /**
+     * 增量推送指定字典
+     * 注：默认推送全部字典，由会话在加载后过滤；能够在数据源侧过滤的实现应覆盖此方法
+     *
+     * @param since 上次成功加载后的水位（null：全量加载）【null_maybe】
+     * @param delta 增量接收器
+     * @param dictCodes 字典编码（null：全部）【null_maybe】
+     * @param muninThreadPool 会话线程池【null_maybe】
+     * @return 本次加载后的水位【null_maybe】
+     */
+    default Object streamDelta(Object since, DictPackBuilder.Delta delta, Set<String> dictCodes,
+                    MuninThreadPool muninThreadPool) {
+        return streamDelta(since, delta, muninThreadPool);
+    }
+
+}
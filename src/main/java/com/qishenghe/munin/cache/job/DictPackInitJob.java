@@ -20,4 +20,13 @@ public interface DictPackInitJob {
      */
     List<DictEntity> init();
 
+    /**
+     * 变更探测（轻量查询数据源的版本标识，如最大更新时间、行数、校验和、文件修改时间等）
+     *
+     * @return 探测值（与上次成功加载时相同则跳过加载，沿用上次的结果；null：不支持探测，每次均加载）
+     */
+    default String probe() {
+        return null;
+    }
+
 }
@@ -0,0 +1,25 @@
+package com.qishenghe.munin.cache.job;
+
+import com.qishenghe.munin.cache.pack.DictPack;
+import com.qishenghe.munin.cache.pack.DictPackConfig;
+
+/**
+ * 字典缓存容器提供者（直接提供构建好的容器，如快照）
+ * 注：会话加载时（多源互斥与合并加载均）直接使用provide的结果，跳过源数据到容器的构建，合并加载时再按字典合并各数据源的容器；
+ * init仅供直接获取源数据的调用方使用
+ *
+ * @author qishenghe
+ * @date 2026/10/20 15:10
+ * @change 2026/10/20 15:10 by qishenghe for init
+ */
+public interface DictPackProvider extends DictPackInitJob {
+
+    /**
+     * 提供字典缓存容器
+     *
+     * @param config 构建配置
+     * @return 字典缓存容器
+     */
+    DictPack provide(DictPackConfig config);
+
+}
@@ -0,0 +1,94 @@
+package com.qishenghe.munin.cache.job;
+
+import com.qishenghe.munin.cache.pack.DictEntity;
+import com.qishenghe.munin.cache.pack.DictEntitySink;
+import com.qishenghe.munin.pool.MuninThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 字典缓存容器初始化Job（流式）
+ * 注：数据源将字典实体逐条推送至接收端，刷新时由构建器直接消费，不再生成完整的中间列表
+ *
+ * @author qishenghe
+ * @date 2026/10/20 17:30
+ * @change 2026/10/20 17:30 by qishenghe for init
+ */
+public interface DictPackStreamJob extends DictPackInitJob {
+
+    /**
+     * 推送字典数据
+     *
+     * @param sink 接收端
+     */
+    void stream(DictEntitySink sink);
+
+    /**
+     * 推送字典数据（可使用会话线程池并发读取，此时接收端需线程安全）
+     *
+     * @param sink 接收端
+     * @param muninThreadPool 会话线程池【null_maybe】
+     */
+    default void stream(DictEntitySink sink, MuninThreadPool muninThreadPool) {
+        stream(sink);
+    }
+
+    /**
+     * 推送指定字典的数据（默认推送全部数据后按字典编码过滤；数据源支持条件下推时覆盖）
+     *
+     * @param sink 接收端
+     * @param dictCodes 字典编码
+     * @param muninThreadPool 会话线程池【null_maybe】
+     */
+    default void stream(DictEntitySink sink, Set<String> dictCodes, MuninThreadPool muninThreadPool) {
+        stream(new DictEntitySink() {
+
+            @Override
+            public void accept(DictEntity entity) {
+                if (dictCodes.contains(entity.getDictCode())) {
+                    sink.accept(entity);
+                }
+            }
+
+            @Override
+            public void acceptAll(Collection<DictEntity> entities) {
+                List<DictEntity> accepted = new ArrayList<>(entities.size());
+                for (DictEntity entity : entities) {
+                    if (dictCodes.contains(entity.getDictCode())) {
+                        accepted.add(entity);
+                    }
+                }
+                sink.acceptAll(accepted);
+            }
+        }, muninThreadPool);
+    }
+
+    /**
+     * 字典缓存容器初始化函数（兼容列表方式调用）
+     *
+     * @return 字典数据
+     */
+    @Override
+    default List<DictEntity> init() {
+        List<DictEntity> resultList = new ArrayList<>();
+        stream(resultList::add);
+        return resultList;
+    }
+
+    /**
+     * 将列表方式的Job适配为流式Job
+     *
+     * @param job 初始化Job
+     * @return 流式Job（本身即为流式时原样返回）
+     */
+    static DictPackStreamJob adapt(DictPackInitJob job) {
+        if (job instanceof DictPackStreamJob) {
+            return (DictPackStreamJob) job;
+        }
+        return sink -> sink.acceptAll(job.init());
+    }
+
+}
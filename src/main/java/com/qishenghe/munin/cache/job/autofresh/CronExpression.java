@@ -0,0 +1,227 @@
+package com.qishenghe.munin.cache.job.autofresh;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * Cron表达式（Quartz写法：秒 分 时 日 月 周 [年]；也支持标准五段写法：分 时 日 月 周）
+ * 注：支持 * ? , - / 与月份、星期英文缩写；Quartz写法中周的取值为1-7（1为周日），五段写法中为0-7（0与7为周日）
+ * 注：日与周同时限定时任一满足即触发；不支持 L W # 等扩展写法
+ *
+ * @author qishenghe
+ * @date 2026/10/20 21:10
+ * @change 2026/10/20 21:10 by qishenghe for init
+ */
+public final class CronExpression {
+
+    /**
+     * 年份上限
+     */
+    private static final int MAX_YEAR = 2199;
+
+    /**
+     * 月份缩写
+     */
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+                    "NOV", "DEC"};
+
+    /**
+     * 星期缩写（自周日起）
+     */
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    /**
+     * 表达式原文
+     */
+    private final String expression;
+
+    private final BitSet seconds;
+
+    private final BitSet minutes;
+
+    private final BitSet hours;
+
+    private final BitSet daysOfMonth;
+
+    private final BitSet months;
+
+    /**
+     * 星期（0-6，0为周日）
+     */
+    private final BitSet daysOfWeek;
+
+    private final BitSet years;
+
+    /**
+     * 日是否不限（* 或 ?）
+     */
+    private final boolean anyDayOfMonth;
+
+    /**
+     * 周是否不限（* 或 ?）
+     */
+    private final boolean anyDayOfWeek;
+
+    /**
+     * 解析
+     *
+     * @param expression 表达式
+     */
+    private CronExpression(String expression) {
+        this.expression = expression;
+        String[] fields = expression.trim().split("\\s+");
+        boolean quartz = fields.length == 6 || fields.length == 7;
+        if (!quartz && fields.length != 5) {
+            throw new RuntimeException("Cron表达式段数不合法 : " + expression);
+        }
+        int offset = quartz ? 0 : -1;
+        this.seconds = quartz ? parseField(fields[0], 0, 59, null, 0) : single(0);
+        this.minutes = parseField(fields[1 + offset], 0, 59, null, 0);
+        this.hours = parseField(fields[2 + offset], 0, 23, null, 0);
+        this.daysOfMonth = parseField(fields[3 + offset], 1, 31, null, 0);
+        this.months = parseField(fields[4 + offset], 1, 12, MONTH_NAMES, 1);
+        // 星期统一转为0-6（0为周日）
+        BitSet week = quartz ? parseField(fields[5], 1, 7, DAY_NAMES, 1) : parseField(fields[4], 0, 7, DAY_NAMES, 0);
+        this.daysOfWeek = new BitSet(7);
+        for (int i = week.nextSetBit(0); i >= 0; i = week.nextSetBit(i + 1)) {
+            daysOfWeek.set(quartz ? i - 1 : i % 7);
+        }
+        this.years = fields.length == 7 ? parseField(fields[6], 1970, MAX_YEAR, null, 0) : null;
+        this.anyDayOfMonth = isAny(fields[3 + offset]);
+        this.anyDayOfWeek = isAny(fields[5 + offset]);
+    }
+
+    /**
+     * 解析Cron表达式
+     *
+     * @param expression 表达式
+     * @return Cron表达式
+     */
+    public static CronExpression parse(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new RuntimeException("Cron表达式为空");
+        }
+        return new CronExpression(expression);
+    }
+
+    /**
+     * 下一次触发时间
+     *
+     * @param after 起始时间（不含）
+     * @return 下一次触发时间（不再触发时返回null）【null_maybe】
+     */
+    public LocalDateTime next(LocalDateTime after) {
+        LocalDateTime time = after.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        while (time.getYear() <= MAX_YEAR) {
+            if (years != null && !years.get(time.getYear())) {
+                time = LocalDateTime.of(time.getYear() + 1, 1, 1, 0, 0);
+            } else if (!months.get(time.getMonthValue())) {
+                time = time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1).plusMonths(1);
+            } else if (!matchDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!hours.get(time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+            } else if (!seconds.get(time.getSecond())) {
+                time = time.plusSeconds(1);
+            } else {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 【封装】日与周是否匹配
+     */
+    private boolean matchDay(LocalDateTime time) {
+        boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        if (anyDayOfMonth || anyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    /**
+     * 【封装】解析单个字段（列表、区间、步长）
+     */
+    private static BitSet parseField(String field, int min, int max, String[] names, int nameBase) {
+        BitSet result = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, Integer.MAX_VALUE, null, 0, field);
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (isAny(part)) {
+                from = min;
+                to = max;
+            } else if (part.indexOf('-') > 0) {
+                int dash = part.indexOf('-');
+                from = parseNumber(part.substring(0, dash), min, max, names, nameBase, field);
+                to = parseNumber(part.substring(dash + 1), min, max, names, nameBase, field);
+            } else {
+                from = parseNumber(part, min, max, names, nameBase, field);
+                to = slash >= 0 ? max : from;
+            }
+            if (from > to) {
+                throw new RuntimeException("Cron表达式区间不合法 : " + field);
+            }
+            for (int i = from; i <= to; i += step) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 【封装】解析单个取值（数字或英文缩写）
+     */
+    private static int parseNumber(String value, int min, int max, String[] names, int nameBase, String field) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    return i + nameBase;
+                }
+            }
+        }
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("不支持的Cron表达式写法 : " + field);
+        }
+        if (number < min || number > max) {
+            throw new RuntimeException("Cron表达式取值超出范围 : " + field);
+        }
+        return number;
+    }
+
+    /**
+     * 【封装】是否不限
+     */
+    private static boolean isAny(String field) {
+        return "*".equals(field) || "?".equals(field);
+    }
+
+    /**
+     * 【封装】单值
+     */
+    private static BitSet single(int value) {
+        BitSet result = new BitSet(value + 1);
+        result.set(value);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+}
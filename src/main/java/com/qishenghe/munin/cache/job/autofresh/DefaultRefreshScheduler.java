@@ -0,0 +1,236 @@
+package com.qishenghe.munin.cache.job.autofresh;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 默认刷新调度器（按触发时间延迟执行，不轮询）
+ * 注：同一JVM内的所有调度器共用一个守护计时线程，计时线程只负责触发，任务交由各调度器的线程池执行
+ * （未指定时共用一个有界的守护工作线程池，多个会话不会各自占用线程）；各调度器只管理自己注册的任务，关闭时不影响其他调度器
+ * 注：执行结束后再计算下一次触发时间，同一任务不会重叠
+ *
+ * @author qishenghe
+ * @date 2026/10/20 21:10
+ * @change 2026/10/20 21:10 by qishenghe for init
+ */
+public class DefaultRefreshScheduler implements RefreshScheduler {
+
+    /**
+     * 共享计时线程（取消的触发立即移出队列）
+     */
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    /**
+     * 共享工作线程池（未指定线程池的调度器共用；线程数有上限，空闲时回收）
+     */
+    private static final ExecutorService WORKERS = createWorkers();
+
+    /**
+     * 执行任务的线程池（null：在计时线程中执行）【null_maybe】
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 任务名称 - 周期任务
+     */
+    private final Map<String, ScheduledTask> tasks = new HashMap<>();
+
+    /**
+     * 已关闭标记
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * 构造（任务在共享工作线程池中执行）
+     */
+    public DefaultRefreshScheduler() {
+        this(WORKERS);
+    }
+
+    /**
+     * 构造
+     *
+     * @param executor 执行任务的线程池（拒绝时在计时线程中执行）【null_maybe】
+     */
+    public DefaultRefreshScheduler(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void schedule(String name, String expression, Runnable task) {
+        if (shutdown) {
+            throw new RuntimeException("调度器已关闭");
+        }
+        ScheduledTask scheduledTask = new ScheduledTask(RefreshTrigger.parse(expression), task);
+        cancel(name);
+        tasks.put(name, scheduledTask);
+        scheduledTask.arm(System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void cancel(String name) {
+        ScheduledTask scheduledTask = tasks.remove(name);
+        if (scheduledTask != null) {
+            scheduledTask.cancel(false);
+        }
+    }
+
+    /**
+     * 关闭调度器（只取消本调度器的任务，共享计时线程继续为其他调度器服务）
+     *
+     * @param now 强制关闭标识（true：中断执行中的任务，false：等待执行中的任务自然结束）
+     */
+    @Override
+    public synchronized void shutdown(boolean now) {
+        shutdown = true;
+        for (ScheduledTask scheduledTask : new ArrayList<>(tasks.values())) {
+            scheduledTask.cancel(now);
+        }
+        tasks.clear();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * 【封装】创建共享计时线程
+     */
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                        new ThreadFactoryBuilder().setNameFormat("MuninRefreshTimer-%d").setDaemon(true).build());
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * 【封装】创建共享工作线程池
+     */
+    private static ExecutorService createWorkers() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                        new ThreadFactoryBuilder().setNameFormat("MuninRefreshWorker-%d").setDaemon(true).build());
+        workers.allowCoreThreadTimeOut(true);
+        return workers;
+    }
+
+    /**
+     * 周期任务
+     */
+    private final class ScheduledTask implements Runnable {
+
+        /**
+         * 触发规则
+         */
+        private final RefreshTrigger trigger;
+
+        /**
+         * 任务
+         */
+        private final Runnable task;
+
+        /**
+         * 计划触发时间（毫秒）
+         */
+        private long fireAt;
+
+        /**
+         * 已取消标记
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * 下一次触发【null_maybe】
+         */
+        private ScheduledFuture<?> future;
+
+        /**
+         * 执行中的任务【null_maybe】
+         */
+        private Future<?> running;
+
+        private ScheduledTask(RefreshTrigger trigger, Runnable task) {
+            this.trigger = trigger;
+            this.task = task;
+        }
+
+        /**
+         * 触发（计时线程中调用，交由线程池执行）
+         */
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            if (executor != null) {
+                synchronized (DefaultRefreshScheduler.this) {
+                    try {
+                        running = cancelled ? null : executor.submit(this::execute);
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        running = null;
+                    }
+                }
+            }
+            execute();
+        }
+
+        /**
+         * 【封装】执行任务并计划下一次触发
+         */
+        private void execute() {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+            arm(System.currentTimeMillis());
+        }
+
+        /**
+         * 计划下一次触发（Cron表达式以计划触发时间为基准，计时线程提前唤醒时不会重复触发）
+         */
+        private void arm(long nowMillis) {
+            long base = trigger.isFixedDelay() ? nowMillis : Math.max(nowMillis, fireAt);
+            long delay = trigger.nextDelayMillis(base);
+            if (delay < 0) {
+                return;
+            }
+            synchronized (DefaultRefreshScheduler.this) {
+                if (cancelled) {
+                    return;
+                }
+                fireAt = base + delay;
+                future = TIMER.schedule(this, fireAt - nowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * 取消
+         *
+         * @param interrupt 是否中断执行中的任务
+         */
+        private void cancel(boolean interrupt) {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+            if (interrupt && running != null) {
+                running.cancel(true);
+            }
+        }
+    }
+
+}
@@ -1,25 +1,53 @@
 package com.qishenghe.munin.cache.job.autofresh;
 
-import com.qishenghe.munin.session.MuninSession;
-import org.quartz.Job;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.InterruptableJob;
 import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 
 /**
- * 字典容器自刷新Job
+ * 字典容器自刷新Job（Quartz刷新调度器使用）
+ * 注：同一Job不并发执行，上一次刷新未结束时本次触发顺延
  *
  * @author qishenghe
  * @date 2021/6/7 15:43
  * @change 2021/6/7 15:43 by qishenghe for init
  */
-public class DictPackAutoFreshJob implements Job {
+@DisallowConcurrentExecution
+public class DictPackAutoFreshJob implements InterruptableJob {
+
+    /**
+     * 任务数据中刷新任务的键
+     */
+    public static final String TASK_KEY = "task";
+
+    /**
+     * 执行中的线程【null_maybe】
+     */
+    private volatile Thread executingThread;
 
     @Override
     public void execute(JobExecutionContext context) {
         JobDataMap jobDataMap = context.getMergedJobDataMap();
-        // 取出session对象
-        MuninSession muninSession = (MuninSession) jobDataMap.get("session");
+        // 取出刷新任务
+        Runnable task = (Runnable) jobDataMap.get(TASK_KEY);
         // 执行刷新
-        muninSession.refreshPack();
+        executingThread = Thread.currentThread();
+        try {
+            task.run();
+        } finally {
+            executingThread = null;
+        }
+    }
+
+    /**
+     * 中断执行中的刷新（调度器强制关闭时调用）
+     */
+    @Override
+    public void interrupt() {
+        Thread thread = executingThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
     }
 }
@@ -0,0 +1,146 @@
+package com.qishenghe.munin.cache.job.autofresh;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.ScheduleBuilder;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.matchers.GroupMatcher;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Quartz刷新调度器（适配已有的Quartz调度器，需自行引入Quartz依赖）
+ * 注：Cron表达式交由Quartz解析；固定间隔按固定频率触发，上一次未结束时顺延
+ * 注：各适配器的任务注册在独立分组中，关闭时只删除本分组的任务，Quartz调度器的生命周期由使用方管理
+ *
+ * @author qishenghe
+ * @date 2026/10/20 21:10
+ * @change 2026/10/20 21:10 by qishenghe for init
+ */
+public class QuartzRefreshScheduler implements RefreshScheduler {
+
+    /**
+     * 分组序号（生成默认分组）
+     */
+    private static final AtomicLong GROUP_SEQUENCE = new AtomicLong();
+
+    /**
+     * Quartz调度器
+     */
+    private final Scheduler scheduler;
+
+    /**
+     * 任务分组
+     */
+    private final String group;
+
+    /**
+     * 已关闭标记
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * 构造（使用自动生成的独立分组）
+     *
+     * @param scheduler Quartz调度器（未启动时注册任务后启动）
+     */
+    public QuartzRefreshScheduler(Scheduler scheduler) {
+        this(scheduler, "Munin-" + GROUP_SEQUENCE.incrementAndGet());
+    }
+
+    /**
+     * 构造
+     *
+     * @param scheduler Quartz调度器（未启动时注册任务后启动）
+     * @param group 任务分组（各适配器使用不同分组）
+     */
+    public QuartzRefreshScheduler(Scheduler scheduler, String group) {
+        this.scheduler = scheduler;
+        this.group = group;
+    }
+
+    @Override
+    public void schedule(String name, String expression, Runnable task) {
+        if (isShutdown()) {
+            throw new RuntimeException("调度器已关闭");
+        }
+        RefreshTrigger refreshTrigger = RefreshTrigger.parse(expression);
+        JobDataMap jobDataMap = new JobDataMap();
+        jobDataMap.put(DictPackAutoFreshJob.TASK_KEY, task);
+        JobDetail jobDetail = JobBuilder.newJob(DictPackAutoFreshJob.class).setJobData(jobDataMap)
+                        .withIdentity(name, group).build();
+        ScheduleBuilder<? extends Trigger> scheduleBuilder = refreshTrigger.isFixedDelay()
+                        ? SimpleScheduleBuilder.repeatSecondlyForever().withIntervalInMilliseconds(refreshTrigger.getDelayMillis())
+                        : CronScheduleBuilder.cronSchedule(expression.trim());
+        Trigger jobTrigger = TriggerBuilder.newTrigger().withIdentity(name, group).forJob(jobDetail)
+                        .withSchedule(scheduleBuilder).build();
+        try {
+            scheduler.deleteJob(jobDetail.getKey());
+            scheduler.scheduleJob(jobDetail, jobTrigger);
+            if (!scheduler.isStarted()) {
+                scheduler.start();
+            }
+        } catch (SchedulerException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[quartz]周期任务注册失败，原因 : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void cancel(String name) {
+        try {
+            scheduler.deleteJob(JobKey.jobKey(name, group));
+        } catch (SchedulerException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[quartz]周期任务取消失败，原因 : " + e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭（删除本分组的任务，强制关闭时中断执行中的任务；Quartz调度器本身不关闭）
+     *
+     * @param now 强制关闭标识
+     */
+    @Override
+    public void shutdown(boolean now) {
+        shutdown = true;
+        try {
+            if (scheduler.isShutdown()) {
+                return;
+            }
+            Set<JobKey> jobKeys = scheduler.getJobKeys(GroupMatcher.jobGroupEquals(group));
+            if (now) {
+                for (JobExecutionContext context : scheduler.getCurrentlyExecutingJobs()) {
+                    if (jobKeys.contains(context.getJobDetail().getKey())) {
+                        scheduler.interrupt(context.getFireInstanceId());
+                    }
+                }
+            }
+            scheduler.deleteJobs(new ArrayList<>(jobKeys));
+        } catch (SchedulerException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[quartz]周期任务取消失败，原因 : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        try {
+            return shutdown || scheduler.isShutdown();
+        } catch (SchedulerException e) {
+            e.printStackTrace();
+            return true;
+        }
+    }
+
+}
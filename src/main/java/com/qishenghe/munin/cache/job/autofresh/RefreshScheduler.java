@@ -0,0 +1,43 @@
+package com.qishenghe.munin.cache.job.autofresh;
+
+/**
+ * 刷新调度器
+ * 注：同一任务不并发执行，上一次执行结束后再计算下一次触发时间（错过的触发不补偿）
+ *
+ * @author qishenghe
+ * @date 2026/10/20 21:10
+ * @change 2026/10/20 21:10 by qishenghe for init
+ */
+public interface RefreshScheduler {
+
+    /**
+     * 注册周期任务（同名任务已存在时替换）
+     *
+     * @param name 任务名称
+     * @param expression 触发规则（Cron表达式或固定间隔，见RefreshTrigger）
+     * @param task 任务
+     */
+    void schedule(String name, String expression, Runnable task);
+
+    /**
+     * 取消周期任务（执行中的任务不中断）
+     *
+     * @param name 任务名称
+     */
+    void cancel(String name);
+
+    /**
+     * 关闭调度器
+     *
+     * @param now 强制关闭标识（true：中断执行中的任务，false：等待执行中的任务自然结束）
+     */
+    void shutdown(boolean now);
+
+    /**
+     * 是否已关闭
+     *
+     * @return true：已关闭
+     */
+    boolean isShutdown();
+
+}
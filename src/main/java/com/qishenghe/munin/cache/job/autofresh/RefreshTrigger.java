@@ -0,0 +1,115 @@
+package com.qishenghe.munin.cache.job.autofresh;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 刷新触发规则（Cron表达式或固定间隔）
+ * 注：固定间隔写作 @every 加时长，如 @every 30s、@every 5m、@every 1h、@every 500ms；间隔自上次刷新结束起计算
+ *
+ * @author qishenghe
+ * @date 2026/10/20 21:10
+ * @change 2026/10/20 21:10 by qishenghe for init
+ */
+public final class RefreshTrigger {
+
+    /**
+     * 固定间隔前缀
+     */
+    private static final String EVERY_PREFIX = "@every";
+
+    /**
+     * Cron表达式（固定间隔时为null）【null_maybe】
+     */
+    private final CronExpression cron;
+
+    /**
+     * 固定间隔（毫秒）
+     */
+    private final long delayMillis;
+
+    private RefreshTrigger(CronExpression cron, long delayMillis) {
+        this.cron = cron;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * 解析触发规则
+     *
+     * @param expression Cron表达式或固定间隔
+     * @return 触发规则
+     */
+    public static RefreshTrigger parse(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new RuntimeException("刷新周期表达式为空");
+        }
+        String trimmed = expression.trim();
+        if (!trimmed.startsWith(EVERY_PREFIX)) {
+            return new RefreshTrigger(CronExpression.parse(trimmed), 0);
+        }
+        String duration = trimmed.substring(EVERY_PREFIX.length()).trim().toLowerCase();
+        TimeUnit unit;
+        String number;
+        if (duration.endsWith("ms")) {
+            unit = TimeUnit.MILLISECONDS;
+            number = duration.substring(0, duration.length() - 2);
+        } else if (duration.endsWith("s")) {
+            unit = TimeUnit.SECONDS;
+            number = duration.substring(0, duration.length() - 1);
+        } else if (duration.endsWith("m")) {
+            unit = TimeUnit.MINUTES;
+            number = duration.substring(0, duration.length() - 1);
+        } else if (duration.endsWith("h")) {
+            unit = TimeUnit.HOURS;
+            number = duration.substring(0, duration.length() - 1);
+        } else {
+            throw new RuntimeException("固定间隔缺少时间单位 : " + expression);
+        }
+        long delayMillis;
+        try {
+            delayMillis = unit.toMillis(Long.parseLong(number.trim()));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("固定间隔不合法 : " + expression);
+        }
+        if (delayMillis <= 0) {
+            throw new RuntimeException("固定间隔不合法 : " + expression);
+        }
+        return new RefreshTrigger(null, delayMillis);
+    }
+
+    /**
+     * 距下一次触发的时间
+     *
+     * @param nowMillis 当前时间（毫秒）
+     * @return 等待时间（毫秒；不再触发时返回-1）
+     */
+    public long nextDelayMillis(long nowMillis) {
+        if (cron == null) {
+            return delayMillis;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime next = cron.next(LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), zone));
+        return next == null ? -1 : Math.max(0, next.atZone(zone).toInstant().toEpochMilli() - nowMillis);
+    }
+
+    /**
+     * 固定间隔
+     *
+     * @return 固定间隔（毫秒；Cron表达式时为0）
+     */
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    /**
+     * 是否为固定间隔
+     *
+     * @return true：固定间隔，false：Cron表达式
+     */
+    public boolean isFixedDelay() {
+        return cron == null;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.io.Serializable;
+
+/**
+ * 编码成员过滤器（分块布隆过滤器）
+ * 注：每个编码的3个比特位落在同一个64位字中，一次内存访问即可判定；判定为不存在时一定不存在，
+ * 用于在查索引之前快速拒绝字典中不存在的编码（脏数据、废弃编码等）
+ *
+ * @author qishenghe
+ * @date 2026/10/20 9:30
+ * @change 2026/10/20 9:30 by qishenghe for init
+ */
+final class CodeFilter implements Serializable {
+
+    /**
+     * 每个编码占用的比特数
+     */
+    private static final int BITS_PER_CODE = 10;
+
+    /**
+     * 比特位
+     */
+    private final long[] words;
+
+    /**
+     * 字掩码
+     */
+    private final int mask;
+
+    /**
+     * 构造
+     *
+     * @param codes 编码
+     */
+    CodeFilter(String[] codes) {
+        this(codeHashes(codes));
+    }
+
+    /**
+     * 根据编码哈希值（String.hashCode）构造
+     *
+     * @param codeHashes 编码哈希值
+     */
+    CodeFilter(int[] codeHashes) {
+        int wordCount = Integer.highestOneBit(Math.max(1, (codeHashes.length * BITS_PER_CODE + 63) >>> 6));
+        if (wordCount < (codeHashes.length * BITS_PER_CODE + 63) >>> 6) {
+            wordCount <<= 1;
+        }
+        this.words = new long[wordCount];
+        this.mask = wordCount - 1;
+        for (int codeHash : codeHashes) {
+            long hash = mix(codeHash);
+            words[(int) (hash >>> 32) & mask] |= bits(hash);
+        }
+    }
+
+    /**
+     * 编码是否可能存在
+     *
+     * @param code 编码
+     * @return false：一定不存在，true：可能存在
+     */
+    boolean mightContain(String code) {
+        long hash = mix(code == null ? 0 : code.hashCode());
+        long bits = bits(hash);
+        return (words[(int) (hash >>> 32) & mask] & bits) == bits;
+    }
+
+    /**
+     * 【封装】混合哈希值（高32位定位字，低18位定位字内比特）
+     */
+    private static long mix(int codeHash) {
+        long h = codeHash * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * 【封装】编码哈希值
+     */
+    private static int[] codeHashes(String[] codes) {
+        int[] hashes = new int[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            hashes[i] = codes[i] == null ? 0 : codes[i].hashCode();
+        }
+        return hashes;
+    }
+
+    /**
+     * 【封装】字内比特位（取哈希值低位的3组6比特）
+     */
+    private static long bits(long hash) {
+        return (1L << (hash & 63)) | (1L << ((hash >>> 6) & 63)) | (1L << ((hash >>> 12) & 63));
+    }
+
+}
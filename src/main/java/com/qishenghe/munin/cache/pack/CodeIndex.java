@@ -0,0 +1,194 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 编码索引（开放寻址，线性探测）
+ * 注：索引中仅保存位置，键与值由调用方以平行数组的形式持有，构建后不可变
+ *
+ * @author qishenghe
+ * @date 2026/10/19 10:12
+ * @change 2026/10/19 10:12 by qishenghe for init
+ */
+final class CodeIndex implements Serializable {
+
+    /**
+     * 槽位（存储 位置+1，0表示空槽）
+     */
+    private final int[] slots;
+
+    /**
+     * 槽位掩码
+     */
+    private final int mask;
+
+    /**
+     * 去重后的键数量
+     */
+    private final int size;
+
+    /**
+     * 根据键数组构建索引（键重复时后入覆盖，与HashMap.put保持一致）
+     *
+     * @param keys 键数组
+     */
+    CodeIndex(String[] keys) {
+        // 槽位数取不小于键数量两倍的2的幂，负载不超过0.5
+        int capacity = Integer.highestOneBit(Math.max(keys.length, 1) << 1);
+        if (capacity < keys.length << 1) {
+            capacity <<= 1;
+        }
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = spread(keys[i]) & mask;
+            while (true) {
+                int position = slots[slot];
+                if (position == 0) {
+                    slots[slot] = i + 1;
+                    distinct++;
+                    break;
+                }
+                if (equalsKey(keys[position - 1], keys[i])) {
+                    slots[slot] = i + 1;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        this.size = distinct;
+    }
+
+    /**
+     * 查找键所在位置
+     *
+     * @param keys 构建索引时使用的键数组
+     * @param key 键
+     * @return 位置（-1：不存在）
+     */
+    int indexOf(String[] keys, Object key) {
+        int slot = spread(key) & mask;
+        int position;
+        while ((position = slots[slot]) != 0) {
+            if (equalsKey(keys[position - 1], key)) {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 去重后的键数量
+     *
+     * @return 键数量
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 【封装】扰动哈希值，降低低位冲突
+     */
+    private static int spread(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 【封装】键比较
+     */
+    private static boolean equalsKey(String candidate, Object key) {
+        return candidate == key || (candidate != null && candidate.equals(key));
+    }
+
+    /**
+     * 只读Map视图（不复制数据，直接基于平行数组与索引）
+     *
+     * @param <V> 值类型
+     */
+    static final class MapView<V> extends AbstractMap<String, V> {
+
+        private final CodeIndex index;
+
+        private final String[] keys;
+
+        private final V[] values;
+
+        MapView(CodeIndex index, String[] keys, V[] values) {
+            this.index = index;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        public V get(Object key) {
+            int position = index.indexOf(keys, key);
+            return position < 0 ? null : values[position];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return index.indexOf(keys, key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return index.size;
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<Entry<String, V>>() {
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    return new SlotIterator();
+                }
+
+                @Override
+                public int size() {
+                    return index.size;
+                }
+            };
+        }
+
+        /**
+         * 按槽位顺序遍历
+         */
+        private final class SlotIterator implements Iterator<Entry<String, V>> {
+
+            private int slot = nextSlot(0);
+
+            private int nextSlot(int from) {
+                int[] slots = index.slots;
+                while (from < slots.length && slots[from] == 0) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return slot < index.slots.length;
+            }
+
+            @Override
+            public Entry<String, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int position = index.slots[slot] - 1;
+                slot = nextSlot(slot + 1);
+                return new SimpleImmutableEntry<>(keys[position], values[position]);
+            }
+        }
+    }
+
+}
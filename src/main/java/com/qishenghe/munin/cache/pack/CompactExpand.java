@@ -0,0 +1,72 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑存储的扩展信息（UTF-8字节或Deflate压缩字节）
+ *
+ * @author qishenghe
+ * @date 2026/10/19 14:20
+ * @change 2026/10/19 14:20 by qishenghe for init
+ */
+final class CompactExpand implements Serializable {
+
+    /**
+     * 数据
+     */
+    private final byte[] data;
+
+    /**
+     * 解压后的字节长度（-1：未压缩）
+     */
+    private final int rawLength;
+
+    /**
+     * 编解码器（提供解码缓存，反序列化后为空时直接解码）
+     */
+    private final transient ExpandCodec codec;
+
+    CompactExpand(byte[] data, int rawLength, ExpandCodec codec) {
+        this.data = data;
+        this.rawLength = rawLength;
+        this.codec = codec;
+    }
+
+    /**
+     * 解码（优先命中缓存）
+     *
+     * @return 扩展信息
+     */
+    String decode() {
+        return codec == null ? decodeNow() : codec.decode(this);
+    }
+
+    /**
+     * 直接解码
+     *
+     * @return 扩展信息
+     */
+    String decodeNow() {
+        if (rawLength < 0) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                length += inflater.inflate(raw, length, rawLength - length);
+            }
+            return new String(raw, 0, length, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("[expand]扩展信息解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
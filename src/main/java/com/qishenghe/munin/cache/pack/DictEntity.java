@@ -1,6 +1,11 @@
 package com.qishenghe.munin.cache.pack;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.io.Serializable;
 
@@ -12,6 +17,8 @@ import java.io.Serializable;
  * @change 2021/6/7 9:43 by qishenghe for init
  */
 @Data
+@EqualsAndHashCode(exclude = "compactExpand")
+@ToString(exclude = "compactExpand")
 public class DictEntity implements Serializable, Cloneable {
 
     /**
@@ -44,4 +51,65 @@ public class DictEntity implements Serializable, Cloneable {
      */
     private String expand;
 
+    /**
+     * 扩展信息（紧凑存储，与expand互斥，访问时解码）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CompactExpand compactExpand;
+
+    /**
+     * 扩展信息
+     *
+     * @return 扩展信息
+     */
+    public String getExpand() {
+        CompactExpand compact = this.compactExpand;
+        return compact == null ? expand : compact.decode();
+    }
+
+    /**
+     * 扩展信息
+     *
+     * @param expand 扩展信息
+     */
+    public void setExpand(String expand) {
+        this.expand = expand;
+        this.compactExpand = null;
+    }
+
+    /**
+     * 拷贝（字段均为不可变对象，逐字段复制即与缓存实例完全隔离）
+     *
+     * @return 拷贝副本
+     */
+    @Override
+    public DictEntity clone() {
+        try {
+            return (DictEntity) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 生成扩展信息紧凑存储的副本（容器构建时调用，不修改当前实例）
+     *
+     * @param expandCodec 扩展信息编解码器
+     * @return 副本（无需紧凑存储时返回当前实例）
+     */
+    DictEntity compactExpand(ExpandCodec expandCodec) {
+        if (this.expand == null) {
+            return this;
+        }
+        CompactExpand compact = expandCodec.encode(this.expand);
+        if (compact == null) {
+            return this;
+        }
+        DictEntity copy = clone();
+        copy.compactExpand = compact;
+        copy.expand = null;
+        return copy;
+    }
+
 }
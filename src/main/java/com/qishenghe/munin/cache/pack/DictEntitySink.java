@@ -0,0 +1,33 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.util.Collection;
+
+/**
+ * 字典实体接收端（流式加载时数据源逐条推送，构建器边接收边分组，无需先汇总为完整列表）
+ *
+ * @author qishenghe
+ * @date 2026/10/20 17:30
+ * @change 2026/10/20 17:30 by qishenghe for init
+ */
+@FunctionalInterface
+public interface DictEntitySink {
+
+    /**
+     * 接收单条字典实体
+     *
+     * @param dictEntity 字典实体
+     */
+    void accept(DictEntity dictEntity);
+
+    /**
+     * 批量接收字典实体（并发推送时按批调用可减少同步开销）
+     *
+     * @param dictEntities 字典实体
+     */
+    default void acceptAll(Collection<DictEntity> dictEntities) {
+        for (DictEntity dictEntity : dictEntities) {
+            accept(dictEntity);
+        }
+    }
+
+}
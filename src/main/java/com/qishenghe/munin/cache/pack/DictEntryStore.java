@@ -0,0 +1,96 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字典实体存储（单个字典）
+ * 注：位置（position）为实体在源数据中的顺序，与编码过滤器、整型索引、扩展属性索引中的位置一致
+ *
+ * @author qishenghe
+ * @date 2026/10/20 10:40
+ * @change 2026/10/20 10:40 by qishenghe for init
+ */
+abstract class DictEntryStore implements Serializable {
+
+    /**
+     * 实体数量（含重复编码）
+     *
+     * @return 实体数量
+     */
+    abstract int size();
+
+    /**
+     * 查找编码所在位置（编码重复时取最后一条）
+     *
+     * @param code 编码
+     * @return 位置（-1：不存在）
+     */
+    abstract int indexOf(String code);
+
+    /**
+     * 获取指定位置的实体
+     *
+     * @param position 位置
+     * @return 字典实体
+     */
+    abstract DictEntity entity(int position);
+
+    /**
+     * 获取指定位置的含义（值）
+     *
+     * @param position 位置
+     * @return 含义
+     */
+    abstract String meaning(int position);
+
+    /**
+     * 获取指定位置的扩展信息
+     *
+     * @param position 位置
+     * @return 扩展信息
+     */
+    abstract String expand(int position);
+
+    /**
+     * 按sortNum有序的只读列表
+     *
+     * @return 字典实体
+     */
+    abstract List<DictEntity> sortedList();
+
+    /**
+     * 只读Map视图
+     *
+     * @return 编码 - 字典实体
+     */
+    abstract Map<String, DictEntity> mapView();
+
+    /**
+     * 读取时是否生成新实体（true：返回的实体与缓存无关，无需拷贝）
+     *
+     * @return true：是
+     */
+    abstract boolean isDetached();
+
+    /**
+     * 以堆外存储的二进制布局导出（供快照持久化使用）
+     *
+     * @param dictCode 字典编码
+     * @param dictName 字典名称
+     * @return 数据区（只读）
+     */
+    abstract ByteBuffer region(String dictCode, String dictName);
+
+    /**
+     * 导出数据区的长度（不生成数据区）
+     *
+     * @param dictCode 字典编码
+     * @param dictName 字典名称
+     * @return 数据区长度
+     */
+    abstract long regionLength(String dictCode, String dictName);
+
+}
@@ -0,0 +1,537 @@
+package com.qishenghe.munin.cache.pack;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 字典缓存容器构建器
+ * 注：列表输入时第一遍统计各字典条目数，按实际数量一次性分配分组数组，第二遍填充分组；
+ * 流式输入时由接收器边接收边分组；
+ * 各字典的构建（字符串去重、索引、过滤器等）按批次在线程池中并行执行，调用线程同时参与，线程池繁忙时退化为串行
+ *
+ * @author qishenghe
+ * @date 2026/10/20 16:20
+ * @change 2026/10/20 16:20 by qishenghe for init
+ */
+public class DictPackBuilder {
+
+    /**
+     * 单批次最小条目数（过小的批次调度开销大于收益）
+     */
+    private static final int MIN_BATCH_SIZE = 4096;
+
+    /**
+     * 构建配置
+     */
+    private final DictPackConfig config;
+
+    /**
+     * 字符串去重池
+     */
+    private final DictStringPool stringPool;
+
+    /**
+     * 并行构建线程池（null：串行构建）
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 构造
+     *
+     * @param config 构建配置
+     * @param stringPool 字符串去重池
+     * @param executor 并行构建线程池（null：串行构建）
+     */
+    public DictPackBuilder(DictPackConfig config, DictStringPool stringPool, ExecutorService executor) {
+        this.config = config;
+        this.stringPool = stringPool;
+        this.executor = executor;
+    }
+
+    /**
+     * 根据接入的源数据生成字典容器
+     *
+     * @param initData 输入源数据（sortNum为空时赋值-1，字典编码为空的数据忽略）
+     * @return 字典容器
+     */
+    public DictPack build(Collection<DictEntity> initData) {
+        if (initData == null || initData.isEmpty()) {
+            return new DictPack();
+        }
+        // 第一遍：统计各字典条目数
+        Map<String, Group> groupMap = new LinkedHashMap<>();
+        Group[] owners = new Group[initData.size()];
+        int index = 0;
+        for (DictEntity single : initData) {
+            if (single != null && !StringUtils.isEmpty(single.getDictCode())) {
+                if (single.getSortNum() == null) {
+                    single.setSortNum(-1);
+                }
+                Group group = groupMap.get(single.getDictCode());
+                if (group == null) {
+                    String dictCode = stringPool.canonical(single.getDictCode());
+                    group = new Group(dictCode);
+                    groupMap.put(dictCode, group);
+                }
+                group.count++;
+                owners[index] = group;
+            }
+            index++;
+        }
+        // 第二遍：按统计数量分配并填充分组
+        for (Group group : groupMap.values()) {
+            group.entries = new DictEntity[group.count];
+        }
+        index = 0;
+        for (DictEntity single : initData) {
+            Group group = owners[index++];
+            if (group != null) {
+                group.entries[group.filled++] = single;
+            }
+        }
+        return buildGroups(groupMap.values().toArray(new Group[0]), initData.size());
+    }
+
+    /**
+     * 生成流式接收器（数据源推送完毕后调用build(Accumulator)生成容器）
+     *
+     * @return 接收器
+     */
+    public Accumulator accumulator() {
+        return new Accumulator();
+    }
+
+    /**
+     * 根据接收器中的数据生成字典容器
+     *
+     * @param accumulator 接收器
+     * @return 字典容器
+     */
+    public DictPack build(Accumulator accumulator) {
+        Group[] groups;
+        int total;
+        synchronized (accumulator) {
+            groups = accumulator.groupMap.values().toArray(new Group[0]);
+            total = accumulator.total;
+            accumulator.groupMap.clear();
+            accumulator.total = 0;
+        }
+        for (Group group : groups) {
+            if (group.entries.length != group.filled) {
+                group.entries = Arrays.copyOf(group.entries, group.filled);
+            }
+        }
+        return buildGroups(groups, total);
+    }
+
+    /**
+     * 合并多个容器（按传入顺序拼接同名字典的数据，后入的重复编码生效）
+     * 注：只出现在一个容器中的字典直接复用，仅重建多个容器共有的字典
+     *
+     * @param dictPacks 字典容器（传入顺序）
+     * @return 字典容器
+     */
+    public DictPack combine(DictPack... dictPacks) {
+        Map<String, List<DictSinglePack>> sources = new LinkedHashMap<>();
+        for (DictPack dictPack : dictPacks) {
+            for (Map.Entry<String, DictSinglePack> entry : dictPack.getDictPack().entrySet()) {
+                sources.computeIfAbsent(entry.getKey(), key -> new ArrayList<>(1)).add(entry.getValue());
+            }
+        }
+        // 共有字典按传入顺序拼接
+        List<Group> groups = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<String, List<DictSinglePack>> entry : sources.entrySet()) {
+            List<DictSinglePack> singlePacks = entry.getValue();
+            if (singlePacks.size() == 1) {
+                continue;
+            }
+            Group group = new Group(stringPool.canonical(entry.getKey()));
+            for (DictSinglePack singlePack : singlePacks) {
+                group.count += singlePack.size();
+            }
+            group.entries = new DictEntity[group.count];
+            for (DictSinglePack singlePack : singlePacks) {
+                for (int i = 0; i < singlePack.size(); i++) {
+                    group.entries[group.filled++] = singlePack.entity(i);
+                }
+            }
+            group.reused = group.filled;
+            groups.add(group);
+            total += group.count;
+        }
+        runBatches(createBatches(groups.toArray(new Group[0]), total));
+
+        Map<String, DictSinglePack> resultDictPack = new LinkedHashMap<>(sources.size() << 1);
+        Iterator<Group> rebuilt = groups.iterator();
+        for (Map.Entry<String, List<DictSinglePack>> entry : sources.entrySet()) {
+            List<DictSinglePack> singlePacks = entry.getValue();
+            resultDictPack.put(entry.getKey(), singlePacks.size() == 1 ? singlePacks.get(0) : rebuilt.next().result);
+        }
+        return new DictPack(resultDictPack);
+    }
+
+    /**
+     * 生成增量接收器（数据源推送完毕后调用apply(DictPack, Delta)生成容器）
+     *
+     * @return 增量接收器
+     */
+    public Delta delta() {
+        return new Delta();
+    }
+
+    /**
+     * 将增量应用到已有容器，生成新容器
+     * 注：未涉及的字典直接复用；涉及的字典在原数据上剔除被删除、被更新的编码后追加更新数据重建，数据全部删除的字典移除；
+     * 与原数据完全相同的更新、删除不存在的编码视为没有变更（增量重读的窗口不会引起重建）
+     *
+     * @param base 已有容器
+     * @param delta 增量接收器
+     * @return 字典容器（没有变更时返回base）
+     */
+    public DictPack apply(DictPack base, Delta delta) {
+        Map<String, Group> upserts;
+        Map<String, Set<String>> deletes;
+        synchronized (delta) {
+            Accumulator accumulator = delta;
+            upserts = new LinkedHashMap<>(accumulator.groupMap);
+            deletes = new LinkedHashMap<>(delta.deletes);
+            accumulator.groupMap.clear();
+            accumulator.total = 0;
+            delta.deletes.clear();
+        }
+        if (upserts.isEmpty() && deletes.isEmpty()) {
+            return base;
+        }
+        // 重建涉及的字典
+        Set<String> touched = new LinkedHashSet<>(upserts.keySet());
+        touched.addAll(deletes.keySet());
+        Set<String> changed = new HashSet<>();
+        Map<String, Group> rebuilt = new LinkedHashMap<>();
+        int total = 0;
+        for (String dictCode : touched) {
+            Group upsert = upserts.get(dictCode);
+            Set<String> deleted = deletes.getOrDefault(dictCode, Collections.emptySet());
+            Set<String> replaced = new HashSet<>(deleted);
+            for (int i = 0; upsert != null && i < upsert.filled; i++) {
+                replaced.add(upsert.entries[i].getCode());
+            }
+            List<DictEntity> entries = new ArrayList<>();
+            List<DictEntity> removed = new ArrayList<>();
+            DictSinglePack old = base.getDictSinglePack(dictCode);
+            for (int i = 0; old != null && i < old.size(); i++) {
+                DictEntity single = old.entity(i);
+                if (!replaced.contains(single.getCode())) {
+                    entries.add(single);
+                } else {
+                    removed.add(single);
+                }
+            }
+            int reused = entries.size();
+            for (int i = 0; upsert != null && i < upsert.filled; i++) {
+                if (!deleted.contains(upsert.entries[i].getCode())) {
+                    entries.add(upsert.entries[i]);
+                }
+            }
+            List<DictEntity> added = entries.subList(reused, entries.size());
+            if (removed.size() == added.size() && removed.containsAll(added) && added.containsAll(removed)) {
+                continue;
+            }
+            changed.add(dictCode);
+            if (!entries.isEmpty()) {
+                Group group = new Group(stringPool.canonical(dictCode));
+                group.entries = entries.toArray(new DictEntity[0]);
+                group.count = group.entries.length;
+                group.filled = group.entries.length;
+                group.reused = reused;
+                rebuilt.put(dictCode, group);
+                total += group.count;
+            }
+        }
+        if (changed.isEmpty()) {
+            return base;
+        }
+        runBatches(createBatches(rebuilt.values().toArray(new Group[0]), total));
+
+        Map<String, DictSinglePack> resultDictPack = new LinkedHashMap<>();
+        for (Map.Entry<String, DictSinglePack> entry : base.getDictPack().entrySet()) {
+            if (!changed.contains(entry.getKey())) {
+                resultDictPack.put(entry.getKey(), entry.getValue());
+            } else if (rebuilt.containsKey(entry.getKey())) {
+                resultDictPack.put(entry.getKey(), rebuilt.remove(entry.getKey()).result);
+            }
+        }
+        for (Group group : rebuilt.values()) {
+            resultDictPack.put(group.dictCode, group.result);
+        }
+        return new DictPack(resultDictPack);
+    }
+
+    /**
+     * 【封装】构建各字典并生成容器
+     */
+    private DictPack buildGroups(Group[] groups, int total) {
+        runBatches(createBatches(groups, total));
+
+        Map<String, DictSinglePack> resultDictPack = new LinkedHashMap<>(groups.length << 1);
+        for (Group group : groups) {
+            resultDictPack.put(group.dictCode, group.result);
+        }
+        return new DictPack(resultDictPack);
+    }
+
+    /**
+     * 【封装】构建单个字典
+     */
+    private void buildGroup(Group group) {
+        if (config.getStorage() == DictStorage.HEAP) {
+            // 堆外存储不保留字符串实例，无需去重；取自已有容器的条目已去重，且可能正被读取，不再修改
+            canonicalGroup(group.dictCode, group.entries, group.reused);
+        }
+        group.result = DictSinglePack.createSinglePack(group.entries, config);
+        group.entries = null;
+    }
+
+    /**
+     * 【封装】字典分组字符串去重（字典编码、字典名称按字典复用同一实例）
+     *
+     * @param dictCode 字典编码（规范实例）
+     * @param entries 字典分组
+     * @param from 起始位置（之前的条目跳过）
+     */
+    private void canonicalGroup(String dictCode, DictEntity[] entries, int from) {
+        String dictName = null;
+        for (int i = from; i < entries.length; i++) {
+            DictEntity single = entries[i];
+            single.setDictCode(dictCode);
+            if (single.getDictName() != null && !single.getDictName().equals(dictName)) {
+                dictName = stringPool.canonical(single.getDictName());
+            }
+            single.setDictName(single.getDictName() == null ? null : dictName);
+            single.setCode(stringPool.canonical(single.getCode()));
+            single.setMeaning(stringPool.canonical(single.getMeaning()));
+        }
+    }
+
+    /**
+     * 【封装】划分批次（大字典优先，小字典合并为一批）
+     */
+    private List<Group[]> createBatches(Group[] groups, int total) {
+        List<Group[]> batches = new ArrayList<>();
+        if (executor == null) {
+            batches.add(groups);
+            return batches;
+        }
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        int batchSize = Math.max(MIN_BATCH_SIZE, total / (parallelism << 2));
+        Group[] sorted = groups.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(b.count, a.count));
+        List<Group> batch = new ArrayList<>();
+        int batchCount = 0;
+        for (Group group : sorted) {
+            batch.add(group);
+            batchCount += group.count;
+            if (batchCount >= batchSize) {
+                batches.add(batch.toArray(new Group[0]));
+                batch.clear();
+                batchCount = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch.toArray(new Group[0]));
+        }
+        return batches;
+    }
+
+    /**
+     * 【封装】执行各批次（线程池中的工作线程与调用线程共同领取批次，调用线程不会空等排队中的任务）
+     */
+    private void runBatches(List<Group[]> batches) {
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(batches.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < batches.size()) {
+                try {
+                    if (failure.get() == null) {
+                        for (Group group : batches.get(i)) {
+                            buildGroup(group);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        if (executor != null) {
+            int helpers = Math.min(batches.size() - 1, Runtime.getRuntime().availableProcessors());
+            try {
+                for (int i = 0; i < helpers; i++) {
+                    executor.execute(worker);
+                }
+            } catch (RejectedExecutionException e) {
+                // 线程池不可用，由调用线程完成剩余批次
+            }
+        }
+        worker.run();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("字典缓存容器构建被中断");
+        }
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e != null) {
+            throw new RuntimeException("字典缓存容器构建失败", e);
+        }
+    }
+
+    /**
+     * 流式接收器（按字典编码边接收边分组；线程安全，并发推送时建议按批调用acceptAll）
+     */
+    public class Accumulator implements DictEntitySink {
+
+        /**
+         * 字典编码 - 分组
+         */
+        private final Map<String, Group> groupMap = new LinkedHashMap<>();
+
+        /**
+         * 已接收条目数
+         */
+        private int total;
+
+        private Accumulator() {
+        }
+
+        @Override
+        public synchronized void accept(DictEntity dictEntity) {
+            add(dictEntity);
+        }
+
+        @Override
+        public synchronized void acceptAll(Collection<DictEntity> dictEntities) {
+            for (DictEntity dictEntity : dictEntities) {
+                add(dictEntity);
+            }
+        }
+
+        /**
+         * 已接收条目数
+         *
+         * @return 条目数
+         */
+        public synchronized int size() {
+            return total;
+        }
+
+        /**
+         * 【封装】加入分组（sortNum为空时赋值-1，字典编码为空的数据忽略）
+         */
+        private void add(DictEntity single) {
+            if (single == null || StringUtils.isEmpty(single.getDictCode())) {
+                return;
+            }
+            if (single.getSortNum() == null) {
+                single.setSortNum(-1);
+            }
+            Group group = groupMap.get(single.getDictCode());
+            if (group == null) {
+                String dictCode = stringPool.canonical(single.getDictCode());
+                group = new Group(dictCode);
+                group.entries = new DictEntity[8];
+                groupMap.put(dictCode, group);
+            }
+            if (group.filled == group.entries.length) {
+                group.entries = Arrays.copyOf(group.entries, group.filled << 1);
+            }
+            group.entries[group.filled++] = single;
+            group.count++;
+            total++;
+        }
+    }
+
+    /**
+     * 增量接收器（变更行按实体推送，删除行调用delete；同一编码同时存在变更与删除时以删除为准）
+     */
+    public final class Delta extends Accumulator {
+
+        /**
+         * 字典编码 - 删除的编码
+         */
+        private final Map<String, Set<String>> deletes = new LinkedHashMap<>();
+
+        private Delta() {
+        }
+
+        /**
+         * 删除编码
+         *
+         * @param dictCode 字典编码
+         * @param code 编码（键）
+         */
+        public synchronized void delete(String dictCode, String code) {
+            if (!StringUtils.isEmpty(dictCode)) {
+                deletes.computeIfAbsent(dictCode, key -> new HashSet<>()).add(code);
+            }
+        }
+
+        /**
+         * 是否没有任何变更
+         *
+         * @return true：没有变更
+         */
+        public synchronized boolean isEmpty() {
+            return size() == 0 && deletes.isEmpty();
+        }
+    }
+
+    /**
+     * 字典分组
+     */
+    private static final class Group {
+
+        private final String dictCode;
+
+        private int count;
+
+        private int filled;
+
+        private DictEntity[] entries;
+
+        /**
+         * 取自已有容器的条目数（位于entries开头，已去重且可能正被读取，构建时不再修改）
+         */
+        private int reused;
+
+        private DictSinglePack result;
+
+        private Group(String dictCode) {
+            this.dictCode = dictCode;
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+package com.qishenghe.munin.cache.pack;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 字典缓存容器构建配置
+ * 注：构建后不可变（仅经Builder赋值），可在多个会话间共享
+ *
+ * @author qishenghe
+ * @date 2026/10/19 14:20
+ * @change 2026/10/19 14:20 by qishenghe for init
+ */
+@Getter
+public class DictPackConfig {
+
+    /**
+     * 默认配置
+     */
+    public static final DictPackConfig DEFAULT = new Builder().build();
+
+    /**
+     * 字典存储引擎
+     */
+    private DictStorage storage;
+
+    /**
+     * 扩展信息存储方式
+     */
+    private ExpandStorage expandStorage;
+
+    /**
+     * 扩展信息紧凑存储阈值（字符数）
+     */
+    private int expandCompactThreshold;
+
+    /**
+     * 扩展信息解码缓存容量
+     */
+    private int expandCacheSize;
+
+    /**
+     * 扩展信息编解码器
+     */
+    private ExpandCodec expandCodec;
+
+    /**
+     * 扩展属性索引（字典编码 - 需要建立索引的扩展属性）
+     */
+    private Map<String, Set<String>> expandIndexKeys;
+
+    /**
+     * 扩展信息解析器
+     */
+    private ExpandParser expandParser;
+
+    /**
+     * 自动识别整型编码字典
+     */
+    private boolean numericCodeDetect;
+
+    /**
+     * 声明为整型编码的字典（关闭自动识别时生效）
+     */
+    private Set<String> numericCodeDictCodes;
+
+    /**
+     * 编码成员过滤器
+     */
+    private boolean codeFilter;
+
+    /**
+     * 仅经Builder构建
+     */
+    private DictPackConfig() {
+    }
+
+    /**
+     * Builder
+     */
+    public static class Builder {
+
+        /**
+         * 字典存储引擎
+         */
+        private DictStorage storage = DictStorage.HEAP;
+
+        /**
+         * 扩展信息存储方式
+         */
+        private ExpandStorage expandStorage = ExpandStorage.STRING;
+
+        /**
+         * 扩展信息紧凑存储阈值（字符数）
+         */
+        private int expandCompactThreshold = 256;
+
+        /**
+         * 扩展信息解码缓存容量
+         */
+        private int expandCacheSize = 1024;
+
+        /**
+         * 扩展属性索引（字典编码 - 需要建立索引的扩展属性）
+         */
+        private Map<String, Set<String>> expandIndexKeys = new HashMap<>(0);
+
+        /**
+         * 扩展信息解析器
+         */
+        private ExpandParser expandParser = JsonExpandParser.INSTANCE;
+
+        /**
+         * 自动识别整型编码字典
+         */
+        private boolean numericCodeDetect = true;
+
+        /**
+         * 声明为整型编码的字典
+         */
+        private Set<String> numericCodeDictCodes = new HashSet<>(0);
+
+        /**
+         * 编码成员过滤器
+         */
+        private boolean codeFilter = true;
+
+        /**
+         * set storage
+         * @param storage 字典存储引擎（OFF_HEAP：实体存于堆外内存，读取时生成，适合千万级条目；扩展信息紧凑存储配置不生效）
+         * @return builder
+         */
+        public synchronized Builder setStorage (DictStorage storage) {
+            this.storage = storage;
+            return this;
+        }
+
+        /**
+         * set expandStorage
+         * @param expandStorage 扩展信息存储方式
+         * @return builder
+         */
+        public synchronized Builder setExpandStorage (ExpandStorage expandStorage) {
+            this.expandStorage = expandStorage;
+            return this;
+        }
+
+        /**
+         * set expandCompactThreshold
+         * @param expandCompactThreshold 扩展信息紧凑存储阈值（字符数，小于该长度时原样存储）
+         * @return builder
+         */
+        public synchronized Builder setExpandCompactThreshold (int expandCompactThreshold) {
+            this.expandCompactThreshold = expandCompactThreshold;
+            return this;
+        }
+
+        /**
+         * set expandCacheSize
+         * @param expandCacheSize 扩展信息解码缓存容量
+         * @return builder
+         */
+        public synchronized Builder setExpandCacheSize (int expandCacheSize) {
+            this.expandCacheSize = expandCacheSize;
+            return this;
+        }
+
+        /**
+         * set expandIndexKeys（在容器构建时解析扩展信息并为指定属性建立索引）
+         * @param dictCode 字典编码
+         * @param keys 扩展属性
+         * @return builder
+         */
+        public synchronized Builder setExpandIndexKeys (String dictCode, String... keys) {
+            this.expandIndexKeys.computeIfAbsent(dictCode, k -> new LinkedHashSet<>()).addAll(Arrays.asList(keys));
+            return this;
+        }
+
+        /**
+         * set expandParser
+         * @param expandParser 扩展信息解析器（默认按JSON解析）
+         * @return builder
+         */
+        public synchronized Builder setExpandParser (ExpandParser expandParser) {
+            this.expandParser = expandParser;
+            return this;
+        }
+
+        /**
+         * set numericCodeDetect
+         * @param numericCodeDetect 自动识别整型编码字典（编码全部为规范整数的字典额外建立整型索引）
+         * @return builder
+         */
+        public synchronized Builder setNumericCodeDetect (boolean numericCodeDetect) {
+            this.numericCodeDetect = numericCodeDetect;
+            return this;
+        }
+
+        /**
+         * set numericCodeDictCodes
+         * @param dictCodes 声明为整型编码的字典（关闭自动识别时生效，编码不全为规范整数时仍按字符串处理）
+         * @return builder
+         */
+        public synchronized Builder setNumericCodeDictCodes (String... dictCodes) {
+            this.numericCodeDictCodes.addAll(Arrays.asList(dictCodes));
+            return this;
+        }
+
+        /**
+         * set codeFilter
+         * @param codeFilter 为字符串编码建立成员过滤器（约10bit/条），快速拒绝字典中不存在的编码
+         * @return builder
+         */
+        public synchronized Builder setCodeFilter (boolean codeFilter) {
+            this.codeFilter = codeFilter;
+            return this;
+        }
+
+        /**
+         * build
+         * @return config
+         */
+        public synchronized DictPackConfig build () {
+            if (storage == null) {
+                throw new RuntimeException("字典存储引擎不可为空");
+            }
+            if (expandStorage == null) {
+                throw new RuntimeException("扩展信息存储方式不可为空");
+            }
+            if (expandParser == null) {
+                throw new RuntimeException("扩展信息解析器不可为空");
+            }
+
+            DictPackConfig config = new DictPackConfig();
+            config.storage = storage;
+            config.expandStorage = expandStorage;
+            config.expandCompactThreshold = expandCompactThreshold;
+            config.expandCacheSize = expandCacheSize;
+            config.expandCodec = new ExpandCodec(expandStorage, expandCompactThreshold, expandCacheSize);
+            Map<String, Set<String>> indexKeys = new HashMap<>(expandIndexKeys.size() << 1);
+            expandIndexKeys.forEach((dictCode, keys) -> indexKeys.put(dictCode, Collections.unmodifiableSet(new LinkedHashSet<>(keys))));
+            config.expandIndexKeys = Collections.unmodifiableMap(indexKeys);
+            config.expandParser = expandParser;
+            config.numericCodeDetect = numericCodeDetect;
+            config.numericCodeDictCodes = Collections.unmodifiableSet(new HashSet<>(numericCodeDictCodes));
+            config.codeFilter = codeFilter;
+
+            return config;
+        }
+
+    }
+
+}
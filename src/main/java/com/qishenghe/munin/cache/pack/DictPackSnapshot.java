@@ -0,0 +1,355 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 字典缓存容器快照（二进制文件）
+ * 注：文件带格式版本与CRC32校验；读取时以内存映射的方式直接在文件数据上提供查询（各字典数据区布局同堆外存储），
+ * 启动阶段无需等待数据源加载
+ * 注：写出时先写临时文件再原子替换，读取方不会读到写了一半的文件
+ *
+ * <pre>
+ * 布局（大端序）：
+ * [0]  int 魔数（MUNS）
+ * [4]  int 格式版本
+ * [8]  long 生成时间（毫秒）
+ * [16] int 字典数量
+ * [20] int 目录长度
+ * [24] long 正文长度（目录 + 数据区）
+ * [32] int 正文CRC32
+ * [36] int 保留
+ * [40] 目录：字典数量 * (字符串 字典编码, long 数据区偏移, int 数据区长度)
+ *      各字典数据区
+ * </pre>
+ *
+ * @author qishenghe
+ * @date 2026/10/20 13:30
+ * @change 2026/10/20 13:30 by qishenghe for init
+ */
+public final class DictPackSnapshot {
+
+    /**
+     * 魔数（MUNS）
+     */
+    public static final int MAGIC = 0x4D554E53;
+
+    /**
+     * 格式版本
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * 头部长度
+     */
+    private static final int HEADER_LENGTH = 40;
+
+    /**
+     * 读取校验时单次映射的长度
+     */
+    private static final long CRC_WINDOW = 64L << 20;
+
+    /**
+     * 发布目录中的快照文件名前缀
+     */
+    public static final String PUBLISH_PREFIX = "dict-pack-";
+
+    /**
+     * 发布目录中的快照文件名后缀
+     */
+    public static final String PUBLISH_SUFFIX = ".snapshot";
+
+    private DictPackSnapshot() {
+    }
+
+    /**
+     * 将字典缓存容器写出为快照文件（先写临时文件，再原子替换目标文件）
+     * 注：目录按各字典数据区长度预先生成，数据区逐个生成、写出并累计校验值，同一时刻只有一个字典的数据区在内存中
+     *
+     * @param dictPack 字典缓存容器
+     * @param path 快照文件
+     * @throws IOException 写出失败
+     */
+    public static void write(DictPack dictPack, Path path) throws IOException {
+        // 各字典数据区长度
+        List<DictSinglePack> singlePacks = new ArrayList<>();
+        List<String> dictCodes = new ArrayList<>();
+        long[] regionLengths = new long[dictPack.getDictPack().size()];
+        long directoryLength = 0;
+        for (Map.Entry<String, DictSinglePack> entry : dictPack.getDictPack().entrySet()) {
+            long regionLength = entry.getValue().snapshotRegionLength();
+            if (regionLength > Integer.MAX_VALUE) {
+                throw new IOException("字典[" + entry.getKey() + "]数据区超出快照单区容量上限（2GB）");
+            }
+            regionLengths[dictCodes.size()] = regionLength;
+            dictCodes.add(entry.getKey());
+            singlePacks.add(entry.getValue());
+            directoryLength += OffHeapEntryStore.stringLength(entry.getKey()) + 8 + 4;
+        }
+        if (directoryLength > Integer.MAX_VALUE) {
+            throw new IOException("快照目录超出容量上限");
+        }
+        // 目录
+        ByteBuffer directory = ByteBuffer.allocate((int) directoryLength);
+        long regionOffset = HEADER_LENGTH + directoryLength;
+        int cursor = 0;
+        for (int i = 0; i < dictCodes.size(); i++) {
+            cursor = OffHeapEntryStore.writeString(directory, cursor, dictCodes.get(i));
+            directory.putLong(cursor, regionOffset);
+            directory.putInt(cursor + 8, (int) regionLengths[i]);
+            cursor += 12;
+            regionOffset += regionLengths[i];
+        }
+        // 头部（校验值在正文写出后回填）
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putLong(8, System.currentTimeMillis());
+        header.putInt(16, dictCodes.size());
+        header.putInt(20, (int) directoryLength);
+        header.putLong(24, regionOffset - HEADER_LENGTH);
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + "." + System.nanoTime() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                CRC32 crc = new CRC32();
+                writeFully(channel, header.duplicate(), 0);
+                crc.update(directory.duplicate());
+                writeFully(channel, directory, HEADER_LENGTH);
+                long position = HEADER_LENGTH + directoryLength;
+                for (int i = 0; i < singlePacks.size(); i++) {
+                    ByteBuffer region = singlePacks.get(i).snapshotRegion();
+                    if (region.remaining() != regionLengths[i]) {
+                        throw new IOException("字典[" + dictCodes.get(i) + "]数据区长度与目录不一致");
+                    }
+                    crc.update(region.duplicate());
+                    writeFully(channel, region, position);
+                    position += regionLengths[i];
+                }
+                header.putInt(32, (int) crc.getValue());
+                writeFully(channel, header, 0);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 读取快照文件（内存映射，校验通过后直接在映射区上提供查询）
+     * 注：先对整个正文（目录 + 数据区）校验，通过后再解析目录；目录项越界或数据损坏均以IOException抛出
+     *
+     * @param path 快照文件
+     * @param config 构建配置（编码过滤器等查询加速项）
+     * @return 字典缓存容器
+     * @throws IOException 文件不存在、不完整、版本不支持或校验失败
+     */
+    public static DictPack read(Path path, DictPackConfig config) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH) {
+                throw new IOException("快照文件不完整：" + path);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("非字典快照文件：" + path);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("快照文件格式版本不支持：" + header.getInt(4) + "，" + path);
+            }
+            int dictCount = header.getInt(16);
+            int directoryLength = header.getInt(20);
+            if (HEADER_LENGTH + header.getLong(24) != size || dictCount < 0
+                            || directoryLength < 0 || directoryLength > size - HEADER_LENGTH) {
+                throw new IOException("快照文件不完整：" + path);
+            }
+            // 正文校验（分段映射，不受单次映射2GB的限制）
+            CRC32 crc = new CRC32();
+            for (long position = HEADER_LENGTH; position < size; position += CRC_WINDOW) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CRC_WINDOW, size - position)));
+            }
+            if ((int) crc.getValue() != header.getInt(32)) {
+                throw new IOException("快照文件校验失败：" + path);
+            }
+            try {
+                return readBody(channel, path, size, dictCount, directoryLength, config);
+            } catch (RuntimeException e) {
+                throw new IOException("快照文件目录损坏：" + path, e);
+            }
+        }
+    }
+
+    /**
+     * 【封装】解析目录并映射各字典数据区（各目录项均须落在目录内，数据区须落在目录之后的正文内）
+     */
+    private static DictPack readBody(FileChannel channel, Path path, long size, int dictCount, int directoryLength,
+                    DictPackConfig config) throws IOException {
+        ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, directoryLength);
+        Map<String, DictSinglePack> dictPack = new LinkedHashMap<>();
+        int cursor = 0;
+        for (int i = 0; i < dictCount; i++) {
+            if (cursor > directoryLength - 4) {
+                throw new IOException("快照文件目录损坏：" + path);
+            }
+            int stringLength = Math.max(directory.getInt(cursor), 0);
+            if (stringLength > directoryLength - cursor - 4 - 12) {
+                throw new IOException("快照文件目录损坏：" + path);
+            }
+            String dictCode = OffHeapEntryStore.readString(directory, cursor);
+            cursor += 4 + stringLength;
+            long regionOffset = directory.getLong(cursor);
+            int regionLength = directory.getInt(cursor + 8);
+            cursor += 12;
+            if (regionOffset < HEADER_LENGTH + directoryLength || regionLength < 0 || regionOffset + regionLength > size) {
+                throw new IOException("快照文件目录损坏：" + path);
+            }
+            ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, regionOffset, regionLength);
+            dictPack.put(dictCode, DictSinglePack.createSinglePackBySnapshot(region, config));
+        }
+        return new DictPack(dictPack);
+    }
+
+    /**
+     * 读取快照文件的生成时间（只读头部，不校验正文）
+     *
+     * @param path 快照文件
+     * @return 生成时间（毫秒）
+     * @throws IOException 文件不存在或不是字典快照文件
+     */
+    public static long readCreateTime(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("非字典快照文件：" + path);
+            }
+            return header.getLong(8);
+        }
+    }
+
+    /**
+     * 将字典缓存容器发布到目录（文件名带递增版本号，原子写入；发布后只保留最新的若干个版本）
+     *
+     * @param dictPack 字典缓存容器
+     * @param dir 发布目录
+     * @param retain 保留的版本数（不小于1）
+     * @return 发布的快照文件
+     * @throws IOException 写出失败
+     */
+    public static Path publish(DictPack dictPack, Path dir, int retain) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> published = listPublished(dir);
+        long version = System.currentTimeMillis();
+        if (!published.isEmpty()) {
+            version = Math.max(version, publishVersion(published.get(published.size() - 1)) + 1);
+        }
+        Path path = dir.resolve(PUBLISH_PREFIX + String.format("%020d", version) + PUBLISH_SUFFIX);
+        write(dictPack, path);
+        // 清理旧版本（已被映射的文件在类Unix系统下删除后仍可继续读取，删除失败时留待下次清理）
+        published.add(path);
+        for (int i = 0; i < published.size() - Math.max(retain, 1); i++) {
+            try {
+                Files.deleteIfExists(published.get(i));
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+        return path;
+    }
+
+    /**
+     * 获取发布目录中的最新快照
+     *
+     * @param dir 发布目录
+     * @return 最新快照文件（目录不存在或没有快照时返回null）
+     * @throws IOException 目录读取失败
+     */
+    public static Path latest(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        List<Path> published = listPublished(dir);
+        return published.isEmpty() ? null : published.get(published.size() - 1);
+    }
+
+    /**
+     * 是否为发布目录中的快照文件名
+     *
+     * @param fileName 文件名
+     * @return true：是
+     */
+    public static boolean isPublishedName(String fileName) {
+        return fileName.startsWith(PUBLISH_PREFIX) && fileName.endsWith(PUBLISH_SUFFIX)
+                        && fileName.length() == PUBLISH_PREFIX.length() + 20 + PUBLISH_SUFFIX.length();
+    }
+
+    /**
+     * 【封装】发布目录中的快照（按版本升序）
+     */
+    private static List<Path> listPublished(Path dir) throws IOException {
+        List<Path> published = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                if (isPublishedName(path.getFileName().toString())) {
+                    published.add(path);
+                }
+            }
+        }
+        published.sort(null);
+        return published;
+    }
+
+    /**
+     * 【封装】快照文件的版本号
+     */
+    private static long publishVersion(Path path) {
+        String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(PUBLISH_PREFIX.length(), fileName.length() - PUBLISH_SUFFIX.length()));
+    }
+
+    /**
+     * 【封装】完整写出缓冲区
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    /**
+     * 【封装】从指定位置读满缓冲区
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+}
@@ -1,30 +1,118 @@
 package com.qishenghe.munin.cache.pack;
 
-import lombok.Data;
-
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 字典容器（单个字典）
+ * 注：构建后不可变，实体按配置存储于堆内（平行数组 + 开放寻址索引）或堆外（紧凑二进制布局 + 堆外哈希索引）
  *
  * @author qishenghe
  * @date 2021/6/7 13:46
  * @change 2021/6/7 13:46 by qishenghe for init
  */
-@Data
 public class DictSinglePack implements Serializable {
 
     /**
-     * 无序字典
+     * 字典编码
+     */
+    private final String dictCode;
+
+    /**
+     * 字典名称
+     */
+    private final String dictName;
+
+    /**
+     * 字典实体存储
+     */
+    private final DictEntryStore store;
+
+    /**
+     * 编码成员过滤器【null_maybe】
+     */
+    private final CodeFilter codeFilter;
+
+    /**
+     * 整型编码索引（编码全部为规范整数时生成）【null_maybe】
+     */
+    private final IntCodeIndex intCodeIndex;
+
+    /**
+     * 扩展属性索引（属性 - 索引）【null_maybe】
+     */
+    private final Map<String, ExpandAttrIndex> expandIndexes;
+
+    /**
+     * 扩展信息解析器（未建立索引的属性查询时使用）
+     */
+    private final transient ExpandParser expandParser;
+
+    /**
+     * 构造
+     *
+     * @param entries 字典实体（原始顺序）
+     * @param config 构建配置
      */
-    private Map<String, DictEntity> dictMap;
+    private DictSinglePack(DictEntity[] entries, DictPackConfig config) {
+        String[] codes = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            codes[i] = entries[i].getCode();
+        }
+        this.dictCode = entries.length == 0 ? null : entries[0].getDictCode();
+        this.dictName = entries.length == 0 ? null : entries[0].getDictName();
+        // 扩展信息紧凑存储（仅堆内存储；传入的实体可能已在其他容器中提供服务，紧凑存储的是副本）
+        DictEntity[] stored = entries;
+        if (config.getStorage() == DictStorage.HEAP && config.getExpandCodec().isEnabled()) {
+            stored = new DictEntity[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                stored[i] = entries[i].compactExpand(config.getExpandCodec());
+            }
+        }
+        this.store = config.getStorage() == DictStorage.OFF_HEAP
+                        ? OffHeapEntryStore.create(entries, codes, dictCode, dictName)
+                        : new HeapEntryStore(codes, stored);
+        this.codeFilter = config.isCodeFilter() && entries.length != 0 ? new CodeFilter(codes) : null;
+        // 整型编码索引
+        boolean numeric = config.isNumericCodeDetect() || config.getNumericCodeDictCodes().contains(dictCode);
+        this.intCodeIndex = numeric && entries.length != 0 ? IntCodeIndex.tryBuild(codes) : null;
+        // 扩展属性索引（按未紧凑的原实体解析）
+        Set<String> indexKeys = dictCode == null ? null : config.getExpandIndexKeys().get(dictCode);
+        this.expandParser = config.getExpandParser();
+        this.expandIndexes = indexKeys == null || indexKeys.isEmpty() ? null
+                        : ExpandAttrIndex.build(entries, indexKeys, expandParser);
+    }
 
     /**
-     * 有序字典【null_maybe】
+     * 构造（基于快照数据区）
+     * 注：编码过滤器由槽位表中的哈希值直接生成；整型索引与扩展属性索引不随快照持久化，载入时按配置从数据区重建
+     *
+     * @param store 堆外存储（快照数据区）
+     * @param config 构建配置
      */
-    private List<DictEntity> dictList;
+    private DictSinglePack(OffHeapEntryStore store, DictPackConfig config) {
+        this.dictCode = store.dictCode();
+        this.dictName = store.dictName();
+        this.store = store;
+        this.codeFilter = config.isCodeFilter() && store.size() != 0 ? new CodeFilter(store.codeHashes()) : null;
+        // 整型编码索引
+        boolean numeric = config.isNumericCodeDetect() || config.getNumericCodeDictCodes().contains(dictCode);
+        if (numeric && store.size() != 0) {
+            String[] codes = new String[store.size()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = store.code(i);
+            }
+            this.intCodeIndex = IntCodeIndex.tryBuild(codes);
+        } else {
+            this.intCodeIndex = null;
+        }
+        // 扩展属性索引
+        Set<String> indexKeys = dictCode == null ? null : config.getExpandIndexKeys().get(dictCode);
+        this.expandParser = config.getExpandParser();
+        this.expandIndexes = indexKeys == null || indexKeys.isEmpty() ? null
+                        : ExpandAttrIndex.build(store.size(), store::expand, indexKeys, expandParser);
+    }
 
     /**
      * 根据单个字典的源数据生成字典实体
@@ -37,29 +125,255 @@ public class DictSinglePack implements Serializable {
      * @change 2021/6/7 13:54 by qishenghe for init
      */
     public static DictSinglePack createSinglePackByTargetDictData(List<DictEntity> dictEntityList) {
+        return createSinglePackByTargetDictData(dictEntityList, DictPackConfig.DEFAULT);
+    }
 
-        DictSinglePack result = new DictSinglePack();
+    /**
+     * 根据单个字典的源数据生成字典实体（按配置构建）
+     *
+     * @param dictEntityList 目标字典的源数据
+     * @param config 构建配置
+     * @return 目标字典实体
+     */
+    public static DictSinglePack createSinglePackByTargetDictData(List<DictEntity> dictEntityList,
+                    DictPackConfig config) {
         // 判空
-        if (dictEntityList != null && dictEntityList.size() != 0) {
-            // 生成无序字典缓存
-            Map<String, DictEntity> resultDictMap = new HashMap<>(dictEntityList.size() << 1, 0.5f);
-            for (DictEntity single : dictEntityList) {
-                resultDictMap.put(single.getCode(), single);
-            }
-            // 生成有序字典缓存
-            // 排序
-            ArrayList<DictEntity> resultDictList =
-                    dictEntityList.stream().sorted(Comparator.comparingInt(DictEntity::getSortNum))
-                                            .collect(Collectors.toCollection(ArrayList::new));
-            // 修剪
-            resultDictList.trimToSize();
-
-            result.setDictMap(resultDictMap);
-            result.setDictList(resultDictList);
+        if (dictEntityList == null || dictEntityList.size() == 0) {
+            return new DictSinglePack(new DictEntity[0], config);
+        }
+        return new DictSinglePack(dictEntityList.toArray(new DictEntity[0]), config);
+    }
+
+    /**
+     * 根据单个字典的源数据生成字典实体（数组直接作为原始顺序存储，不再复制）
+     *
+     * @param entries 目标字典的源数据
+     * @param config 构建配置
+     * @return 目标字典实体
+     */
+    static DictSinglePack createSinglePack(DictEntity[] entries, DictPackConfig config) {
+        return new DictSinglePack(entries, config);
+    }
+
+    /**
+     * 根据快照数据区生成字典实体
+     * 注：OFF_HEAP存储直接在数据区上提供查询，不复制；HEAP存储按原始顺序解码为堆内实体后按配置构建
+     *
+     * @param region 快照中的字典数据区
+     * @param config 构建配置
+     * @return 目标字典实体
+     */
+    static DictSinglePack createSinglePackBySnapshot(ByteBuffer region, DictPackConfig config) {
+        OffHeapEntryStore store = new OffHeapEntryStore(region);
+        if (config.getStorage() != DictStorage.HEAP || store.size() == 0) {
+            return new DictSinglePack(store, config);
+        }
+        DictEntity[] entries = new DictEntity[store.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = store.entity(i);
+        }
+        return new DictSinglePack(entries, config);
+    }
+
+    /**
+     * 以二进制布局导出（供快照持久化使用）
+     *
+     * @return 数据区（只读）
+     */
+    ByteBuffer snapshotRegion() {
+        return store.region(dictCode, dictName);
+    }
+
+    /**
+     * 导出数据区的长度（不生成数据区）
+     *
+     * @return 数据区长度
+     */
+    long snapshotRegionLength() {
+        return store.regionLength(dictCode, dictName);
+    }
+
+    /**
+     * 按原始顺序获取字典实体（供多源合并时重建使用）
+     *
+     * @param position 位置
+     * @return 字典实体
+     */
+    DictEntity entity(int position) {
+        return store.entity(position);
+    }
+
+    /**
+     * 字典编码
+     *
+     * @return 字典编码
+     */
+    public String getDictCode() {
+        return dictCode;
+    }
+
+    /**
+     * 字典名称
+     *
+     * @return 字典名称
+     */
+    public String getDictName() {
+        return dictName;
+    }
+
+    /**
+     * 根据编码（键）获取字典实体
+     *
+     * @param code 编码（键）
+     * @return 字典实体（不存在时返回null）
+     */
+    public DictEntity getDictEntity(String code) {
+        if (codeFilter != null && !codeFilter.mightContain(code)) {
+            return null;
+        }
+        int position = store.indexOf(code);
+        return position < 0 ? null : store.entity(position);
+    }
+
+    /**
+     * 根据整型编码（键）获取字典实体
+     * 注：整型编码字典直接查整型索引，不装箱、不生成字符串
+     *
+     * @param code 编码（键）
+     * @return 字典实体（不存在时返回null）
+     */
+    public DictEntity getDictEntity(int code) {
+        if (intCodeIndex == null) {
+            return getDictEntity(Integer.toString(code));
+        }
+        int position = intCodeIndex.indexOf(code);
+        return position < 0 ? null : store.entity(position);
+    }
+
+    /**
+     * 根据编码（键）获取含义（值）
+     * 注：只读取含义，堆外存储时不生成DictEntity
+     *
+     * @param code 编码（键）
+     * @param defaultMeaning 编码不存在时的返回值
+     * @return 含义（编码不存在时返回defaultMeaning）
+     */
+    public String getMeaningOrDefault(String code, String defaultMeaning) {
+        if (codeFilter != null && !codeFilter.mightContain(code)) {
+            return defaultMeaning;
+        }
+        int position = store.indexOf(code);
+        return position < 0 ? defaultMeaning : store.meaning(position);
+    }
+
+    /**
+     * 根据整型编码（键）获取含义（值）
+     *
+     * @param code 编码（键）
+     * @param defaultMeaning 编码不存在时的返回值
+     * @return 含义（编码不存在时返回defaultMeaning）
+     */
+    public String getMeaningOrDefault(int code, String defaultMeaning) {
+        if (intCodeIndex == null) {
+            return getMeaningOrDefault(Integer.toString(code), defaultMeaning);
+        }
+        int position = intCodeIndex.indexOf(code);
+        return position < 0 ? defaultMeaning : store.meaning(position);
+    }
+
+    /**
+     * 是否为整型编码字典
+     *
+     * @return true：是
+     */
+    public boolean isNumericCode() {
+        return intCodeIndex != null;
+    }
+
+    /**
+     * 是否为堆外存储（堆外存储每次读取都生成新实体，修改不影响缓存）
+     *
+     * @return true：是
+     */
+    public boolean isOffHeap() {
+        return store.isDetached();
+    }
+
+    /**
+     * 有序字典（只读）
+     * 注：多数字典只按编码翻译，有序视图延迟到首次访问时生成
+     *
+     * @return 按sortNum排序的字典实体
+     */
+    public List<DictEntity> getDictList() {
+        return store.sortedList();
+    }
+
+    /**
+     * 无序字典（只读视图）
+     *
+     * @return 编码 - 字典实体
+     */
+    public Map<String, DictEntity> getDictMap() {
+        return store.mapView();
+    }
+
+    /**
+     * 根据扩展属性等值查询
+     * 注：属性已配置索引时走索引，否则逐条解析扩展信息
+     *
+     * @param key 扩展属性
+     * @param value 属性值
+     * @return 命中的字典实体（按sortNum排序）
+     */
+    public List<DictEntity> getDictEntityByExpand(String key, String value) {
+        return toEntityList(expandIndex(key).findEquals(value));
+    }
+
+    /**
+     * 根据扩展属性区间查询（闭区间；属性值全部为数值时按数值比较，否则按字符串比较）
+     * 注：属性已配置索引时走索引，否则逐条解析扩展信息
+     *
+     * @param key 扩展属性
+     * @param from 下界（null：无下界）
+     * @param to 上界（null：无上界）
+     * @return 命中的字典实体（按sortNum排序）
+     */
+    public List<DictEntity> getDictEntityByExpandRange(String key, String from, String to) {
+        return toEntityList(expandIndex(key).findRange(from, to));
+    }
+
+    /**
+     * 【封装】获取扩展属性索引，未配置时临时构建
+     */
+    private ExpandAttrIndex expandIndex(String key) {
+        ExpandAttrIndex index = expandIndexes == null ? null : expandIndexes.get(key);
+        if (index == null) {
+            ExpandParser parser = expandParser == null ? JsonExpandParser.INSTANCE : expandParser;
+            index = ExpandAttrIndex.build(store.size(), store::expand, Collections.singleton(key), parser).get(key);
         }
+        return index;
+    }
 
+    /**
+     * 【封装】实体位置转为实体列表（按sortNum稳定排序）
+     */
+    private List<DictEntity> toEntityList(int[] positions) {
+        List<DictEntity> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(store.entity(position));
+        }
+        result.sort(Comparator.comparingInt(DictEntity::getSortNum));
         return result;
     }
 
+    /**
+     * 字典条目数（含重复编码）
+     *
+     * @return 条目数
+     */
+    public int size() {
+        return store.size();
+    }
 
 }
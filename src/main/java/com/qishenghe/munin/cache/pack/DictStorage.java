@@ -0,0 +1,22 @@
+package com.qishenghe.munin.cache.pack;
+
+/**
+ * 字典存储引擎
+ *
+ * @author qishenghe
+ * @date 2026/10/20 10:40
+ * @change 2026/10/20 10:40 by qishenghe for init
+ */
+public enum DictStorage {
+
+    /**
+     * 堆内存储（DictEntity对象数组）
+     */
+    HEAP,
+
+    /**
+     * 堆外存储（紧凑二进制布局，读取时生成DictEntity）
+     */
+    OFF_HEAP
+
+}
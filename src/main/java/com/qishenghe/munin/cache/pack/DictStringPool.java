@@ -0,0 +1,93 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 字符串去重池（用于字典容器构建）
+ * 注：相同内容的字符串在容器中只保留一个实例；池可跨刷新传递，上一代仍在使用的实例优先被复用，
+ * 避免每次刷新都产生一批内容相同的新字符串并晋升至老年代
+ * 注：线程安全（并行构建时各字典共用一代池），一代池只用于一次构建
+ *
+ * @author qishenghe
+ * @date 2026/10/19 11:05
+ * @change 2026/10/19 11:05 by qishenghe for init
+ */
+public class DictStringPool {
+
+    /**
+     * 参与去重的最大长度（过长的字符串重复概率低，不值得占用池空间）
+     */
+    public static final int MAX_POOLED_LENGTH = 64;
+
+    /**
+     * 当前代
+     */
+    private final Map<String, String> pool;
+
+    /**
+     * 上一代（只读）
+     */
+    private final Map<String, String> previous;
+
+    /**
+     * 构造（无上一代）
+     */
+    public DictStringPool() {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * 构造
+     *
+     * @param previous 上一代
+     */
+    private DictStringPool(Map<String, String> previous) {
+        this.pool = new ConcurrentHashMap<>(Math.max(16, previous.size() + (previous.size() >> 1)));
+        this.previous = previous;
+    }
+
+    /**
+     * 生成下一代池（当前代作为下一代的复用来源，更早的代随之释放）
+     *
+     * @return 下一代池
+     */
+    public DictStringPool next() {
+        return new DictStringPool(this.pool);
+    }
+
+    /**
+     * 获取规范实例
+     *
+     * @param value 字符串
+     * @return 内容相同的规范实例
+     */
+    public String canonical(String value) {
+        if (value == null || value.length() > MAX_POOLED_LENGTH) {
+            return value;
+        }
+        String canonical = pool.get(value);
+        if (canonical == null) {
+            canonical = previous.get(value);
+            if (canonical == null) {
+                canonical = value;
+            }
+            String raced = pool.putIfAbsent(canonical, canonical);
+            if (raced != null) {
+                canonical = raced;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * 当前代池大小
+     *
+     * @return 池中字符串数量
+     */
+    public int size() {
+        return pool.size();
+    }
+
+}
@@ -0,0 +1,244 @@
+package com.qishenghe.munin.cache.pack;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * 扩展属性索引（单个字典、单个属性）
+ * 注：属性值全部为数值时按数值排序，否则按字符串排序；支持等值与区间查询
+ *
+ * @author qishenghe
+ * @date 2026/10/19 15:40
+ * @change 2026/10/19 15:40 by qishenghe for init
+ */
+final class ExpandAttrIndex implements Serializable {
+
+    /**
+     * 属性值（字符串模式，有序）
+     */
+    private final String[] values;
+
+    /**
+     * 属性值（数值模式，有序）
+     */
+    private final double[] numbers;
+
+    /**
+     * 属性值对应的字典实体位置（与values/numbers平行）
+     */
+    private final int[] positions;
+
+    private ExpandAttrIndex(String[] values, double[] numbers, int[] positions) {
+        this.values = values;
+        this.numbers = numbers;
+        this.positions = positions;
+    }
+
+    /**
+     * 构建字典的扩展属性索引（每个实体的扩展信息只解析一次）
+     *
+     * @param entries 字典实体
+     * @param keys 需要建立索引的属性
+     * @param parser 扩展信息解析器
+     * @return 属性 - 索引
+     */
+    static Map<String, ExpandAttrIndex> build(DictEntity[] entries, Collection<String> keys, ExpandParser parser) {
+        return build(entries.length, position -> entries[position].getExpand(), keys, parser);
+    }
+
+    /**
+     * 构建字典的扩展属性索引（按位置读取扩展信息，每条只解析一次）
+     *
+     * @param size 实体数量
+     * @param expands 位置 - 扩展信息
+     * @param keys 需要建立索引的属性
+     * @param parser 扩展信息解析器
+     * @return 属性 - 索引
+     */
+    static Map<String, ExpandAttrIndex> build(int size, IntFunction<String> expands, Collection<String> keys,
+                    ExpandParser parser) {
+        Map<String, List<Attr>> attrMap = new HashMap<>(keys.size() << 1);
+        for (String key : keys) {
+            attrMap.put(key, new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            Map<String, String> attrs = parser.parse(expands.apply(i));
+            if (attrs.isEmpty()) {
+                continue;
+            }
+            for (Map.Entry<String, List<Attr>> attr : attrMap.entrySet()) {
+                String value = attrs.get(attr.getKey());
+                if (value != null) {
+                    attr.getValue().add(new Attr(value, i));
+                }
+            }
+        }
+        Map<String, ExpandAttrIndex> result = new HashMap<>(keys.size() << 1);
+        for (Map.Entry<String, List<Attr>> attr : attrMap.entrySet()) {
+            result.put(attr.getKey(), create(attr.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 【封装】根据属性值生成索引
+     */
+    private static ExpandAttrIndex create(List<Attr> attrs) {
+        boolean numeric = !attrs.isEmpty();
+        for (Attr attr : attrs) {
+            if (!NumberUtils.isParsable(attr.value)) {
+                numeric = false;
+                break;
+            }
+        }
+        int[] positions = new int[attrs.size()];
+        if (numeric) {
+            for (Attr attr : attrs) {
+                // +0.0 将 -0.0 归一为 0.0
+                attr.number = Double.parseDouble(attr.value) + 0.0d;
+            }
+            attrs.sort(Comparator.comparingDouble((Attr attr) -> attr.number).thenComparingInt(attr -> attr.position));
+            double[] numbers = new double[attrs.size()];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = attrs.get(i).number;
+                positions[i] = attrs.get(i).position;
+            }
+            return new ExpandAttrIndex(null, numbers, positions);
+        } else {
+            attrs.sort(Comparator.comparing((Attr attr) -> attr.value).thenComparingInt(attr -> attr.position));
+            String[] values = new String[attrs.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = attrs.get(i).value;
+                positions[i] = attrs.get(i).position;
+            }
+            return new ExpandAttrIndex(values, null, positions);
+        }
+    }
+
+    /**
+     * 等值查询
+     *
+     * @param value 属性值
+     * @return 命中的实体位置（升序）
+     */
+    int[] findEquals(String value) {
+        return findRange(value, value);
+    }
+
+    /**
+     * 区间查询（闭区间）
+     *
+     * @param from 下界（null：无下界）
+     * @param to 上界（null：无上界）
+     * @return 命中的实体位置（升序）
+     */
+    int[] findRange(String from, String to) {
+        int start;
+        int end;
+        if (numbers != null) {
+            if ((from != null && !NumberUtils.isParsable(from)) || (to != null && !NumberUtils.isParsable(to))) {
+                return new int[0];
+            }
+            start = from == null ? 0 : lowerBound(Double.parseDouble(from));
+            end = to == null ? numbers.length : upperBound(Double.parseDouble(to));
+        } else {
+            start = from == null ? 0 : lowerBound(from);
+            end = to == null ? values.length : upperBound(to);
+        }
+        if (start >= end) {
+            return new int[0];
+        }
+        int[] result = Arrays.copyOfRange(positions, start, end);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * 【封装】第一个不小于目标值的位置
+     */
+    private int lowerBound(double target) {
+        int low = 0;
+        int high = numbers.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (numbers[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 【封装】第一个大于目标值的位置
+     */
+    private int upperBound(double target) {
+        int low = 0;
+        int high = numbers.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (numbers[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 【封装】第一个不小于目标值的位置
+     */
+    private int lowerBound(String target) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid].compareTo(target) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 【封装】第一个大于目标值的位置
+     */
+    private int upperBound(String target) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid].compareTo(target) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 构建期的属性值
+     */
+    private static final class Attr {
+
+        private final String value;
+
+        private final int position;
+
+        private double number;
+
+        private Attr(String value, int position) {
+            this.value = value;
+            this.position = position;
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.qishenghe.munin.cache.pack;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * 扩展信息编解码器
+ * 注：解码结果放入有界缓存（按CompactExpand实例弱引用），频繁读取的扩展信息无需重复解码
+ *
+ * @author qishenghe
+ * @date 2026/10/19 14:20
+ * @change 2026/10/19 14:20 by qishenghe for init
+ */
+public class ExpandCodec {
+
+    /**
+     * 存储方式
+     */
+    private final ExpandStorage storage;
+
+    /**
+     * 紧凑存储阈值（字符数，小于该长度时原样存储）
+     */
+    private final int threshold;
+
+    /**
+     * 解码缓存
+     */
+    private final Cache<CompactExpand, String> decodeCache;
+
+    /**
+     * 构造
+     *
+     * @param storage 存储方式
+     * @param threshold 紧凑存储阈值（字符数）
+     * @param cacheSize 解码缓存容量
+     */
+    public ExpandCodec(ExpandStorage storage, int threshold, int cacheSize) {
+        this.storage = storage == null ? ExpandStorage.STRING : storage;
+        this.threshold = threshold;
+        this.decodeCache = CacheBuilder.newBuilder().weakKeys().maximumSize(Math.max(cacheSize, 0)).build();
+    }
+
+    /**
+     * 是否启用紧凑存储
+     *
+     * @return true：启用
+     */
+    public boolean isEnabled() {
+        return storage != ExpandStorage.STRING;
+    }
+
+    /**
+     * 编码
+     *
+     * @param expand 扩展信息
+     * @return 紧凑存储（无需紧凑存储时返回null）
+     */
+    CompactExpand encode(String expand) {
+        if (!isEnabled() || expand == null || expand.length() < threshold) {
+            return null;
+        }
+        byte[] raw = expand.getBytes(StandardCharsets.UTF_8);
+        if (storage == ExpandStorage.DEFLATE) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                byte[] buffer = new byte[raw.length];
+                int length = 0;
+                while (!deflater.finished() && length < buffer.length) {
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+                if (deflater.finished() && length < raw.length) {
+                    return new CompactExpand(Arrays.copyOf(buffer, length), raw.length, this);
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        return new CompactExpand(raw, -1, this);
+    }
+
+    /**
+     * 解码（缓存）
+     *
+     * @param compactExpand 紧凑存储
+     * @return 扩展信息
+     */
+    String decode(CompactExpand compactExpand) {
+        String expand = decodeCache.getIfPresent(compactExpand);
+        if (expand == null) {
+            expand = compactExpand.decodeNow();
+            decodeCache.put(compactExpand, expand);
+        }
+        return expand;
+    }
+
+}
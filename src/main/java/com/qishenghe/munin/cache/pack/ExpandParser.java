@@ -0,0 +1,22 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.util.Map;
+
+/**
+ * 扩展信息解析器（将扩展信息解析为属性键值对）
+ *
+ * @author qishenghe
+ * @date 2026/10/19 15:40
+ * @change 2026/10/19 15:40 by qishenghe for init
+ */
+public interface ExpandParser {
+
+    /**
+     * 解析扩展信息
+     *
+     * @param expand 扩展信息
+     * @return 属性键值对（无法解析时返回空Map，不可返回null）
+     */
+    Map<String, String> parse(String expand);
+
+}
@@ -0,0 +1,27 @@
+package com.qishenghe.munin.cache.pack;
+
+/**
+ * 扩展信息存储方式
+ *
+ * @author qishenghe
+ * @date 2026/10/19 14:20
+ * @change 2026/10/19 14:20 by qishenghe for init
+ */
+public enum ExpandStorage {
+
+    /**
+     * 原样存储（String）
+     */
+    STRING,
+
+    /**
+     * UTF-8字节存储，访问时解码
+     */
+    UTF8,
+
+    /**
+     * Deflate压缩存储，访问时解压（压缩无收益时退化为UTF-8字节）
+     */
+    DEFLATE
+
+}
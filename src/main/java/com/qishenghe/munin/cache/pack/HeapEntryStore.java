@@ -0,0 +1,133 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 堆内字典实体存储
+ * 注：实体以平行数组存储，编码查询走开放寻址索引
+ *
+ * @author qishenghe
+ * @date 2026/10/20 10:40
+ * @change 2026/10/20 10:40 by qishenghe for init
+ */
+final class HeapEntryStore extends DictEntryStore {
+
+    /**
+     * 编码（与entries平行，原始顺序）
+     */
+    private final String[] codes;
+
+    /**
+     * 字典实体（原始顺序）
+     */
+    private final DictEntity[] entries;
+
+    /**
+     * 字典实体（按sortNum有序，首次访问时生成；原始数据已有序时与entries共用同一数组）
+     */
+    private transient volatile DictEntity[] sortedEntries;
+
+    /**
+     * 编码索引
+     */
+    private final CodeIndex codeIndex;
+
+    /**
+     * 构造
+     *
+     * @param codes 编码
+     * @param entries 字典实体（原始顺序）
+     */
+    HeapEntryStore(String[] codes, DictEntity[] entries) {
+        this.codes = codes;
+        this.entries = entries;
+        this.codeIndex = new CodeIndex(codes);
+    }
+
+    @Override
+    int size() {
+        return entries.length;
+    }
+
+    @Override
+    int indexOf(String code) {
+        return codeIndex.indexOf(codes, code);
+    }
+
+    @Override
+    DictEntity entity(int position) {
+        return entries[position];
+    }
+
+    @Override
+    String meaning(int position) {
+        return entries[position].getMeaning();
+    }
+
+    @Override
+    String expand(int position) {
+        return entries[position].getExpand();
+    }
+
+    /**
+     * 有序字典（只读）
+     * 注：多数字典只按编码翻译，有序视图延迟到首次访问时生成
+     */
+    @Override
+    List<DictEntity> sortedList() {
+        DictEntity[] sorted = sortedEntries;
+        if (sorted == null) {
+            synchronized (this) {
+                sorted = sortedEntries;
+                if (sorted == null) {
+                    sorted = sortBySortNum(entries);
+                    sortedEntries = sorted;
+                }
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(sorted));
+    }
+
+    @Override
+    Map<String, DictEntity> mapView() {
+        return new CodeIndex.MapView<>(codeIndex, codes, entries);
+    }
+
+    @Override
+    boolean isDetached() {
+        return false;
+    }
+
+    @Override
+    ByteBuffer region(String dictCode, String dictName) {
+        return OffHeapEntryStore.encode(entries, codes, dictCode, dictName, false);
+    }
+
+    @Override
+    long regionLength(String dictCode, String dictName) {
+        return OffHeapEntryStore.encodedLength(entries, dictCode, dictName);
+    }
+
+    /**
+     * 【封装】按sortNum稳定排序，已有序时不复制
+     *
+     * @param entries 字典实体（原始顺序）
+     * @return 有序字典实体
+     */
+    private static DictEntity[] sortBySortNum(DictEntity[] entries) {
+        for (int i = 1; i < entries.length; i++) {
+            if (entries[i - 1].getSortNum() > entries[i].getSortNum()) {
+                DictEntity[] sorted = entries.clone();
+                Arrays.sort(sorted, Comparator.comparingInt(DictEntity::getSortNum));
+                return sorted;
+            }
+        }
+        return entries;
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.io.Serializable;
+
+/**
+ * 整型编码索引（编码均为规范整数的字典）
+ * 注：编码分布紧凑时使用直接寻址数组，否则使用开放寻址的原始类型哈希表；查询过程无装箱、无字符串
+ *
+ * @author qishenghe
+ * @date 2026/10/19 16:30
+ * @change 2026/10/19 16:30 by qishenghe for init
+ */
+final class IntCodeIndex implements Serializable {
+
+    /**
+     * 直接寻址允许的最大空间放大倍数
+     */
+    private static final int DENSE_FACTOR = 4;
+
+    /**
+     * 最小编码（直接寻址偏移量）
+     */
+    private final int min;
+
+    /**
+     * 直接寻址表（下标：编码-min，值：位置+1，0表示不存在）【null_maybe】
+     */
+    private final int[] dense;
+
+    /**
+     * 哈希表键【null_maybe】
+     */
+    private final int[] keys;
+
+    /**
+     * 哈希表槽位（位置+1，0表示空槽）【null_maybe】
+     */
+    private final int[] slots;
+
+    /**
+     * 槽位掩码
+     */
+    private final int mask;
+
+    /**
+     * 构造
+     *
+     * @param codes 整型编码（与字典实体平行，重复时后入覆盖）
+     */
+    private IntCodeIndex(int[] codes) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int code : codes) {
+            min = Math.min(min, code);
+            max = Math.max(max, code);
+        }
+        long span = codes.length == 0 ? 0 : (long) max - min + 1;
+        if (span <= (long) codes.length * DENSE_FACTOR + 16) {
+            // 直接寻址
+            this.min = codes.length == 0 ? 0 : min;
+            this.dense = new int[(int) span];
+            for (int i = 0; i < codes.length; i++) {
+                dense[codes[i] - this.min] = i + 1;
+            }
+            this.keys = null;
+            this.slots = null;
+            this.mask = 0;
+        } else {
+            // 开放寻址（负载不超过0.5）
+            int capacity = Integer.highestOneBit(codes.length << 1);
+            if (capacity < codes.length << 1) {
+                capacity <<= 1;
+            }
+            this.min = 0;
+            this.dense = null;
+            this.keys = new int[capacity];
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+            for (int i = 0; i < codes.length; i++) {
+                int slot = spread(codes[i]) & mask;
+                while (slots[slot] != 0 && keys[slot] != codes[i]) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = codes[i];
+                slots[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * 尝试构建整型编码索引
+     *
+     * @param codes 编码
+     * @return 整型编码索引（存在非规范整数编码时返回null）
+     */
+    static IntCodeIndex tryBuild(String[] codes) {
+        int[] intCodes = new int[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            if (!isCanonicalInt(codes[i])) {
+                return null;
+            }
+            intCodes[i] = Integer.parseInt(codes[i]);
+        }
+        return new IntCodeIndex(intCodes);
+    }
+
+    /**
+     * 查找编码所在位置
+     *
+     * @param code 编码
+     * @return 位置（-1：不存在）
+     */
+    int indexOf(int code) {
+        if (dense != null) {
+            long offset = (long) code - min;
+            return offset < 0 || offset >= dense.length ? -1 : dense[(int) offset] - 1;
+        }
+        int slot = spread(code) & mask;
+        int position;
+        while ((position = slots[slot]) != 0) {
+            if (keys[slot] == code) {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 是否为规范整数（与Integer.toString结果一致：无前导零、无正号、无"-0"、不越界）
+     *
+     * @param code 编码
+     * @return true：是
+     */
+    static boolean isCanonicalInt(String code) {
+        if (code == null || code.isEmpty() || code.length() > 11) {
+            return false;
+        }
+        int start = code.charAt(0) == '-' ? 1 : 0;
+        if (start == code.length() || (code.charAt(start) == '0' && (code.length() > start + 1 || start == 1))) {
+            return false;
+        }
+        long value = 0;
+        for (int i = start; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return start == 1 ? -value >= Integer.MIN_VALUE : value <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * 【封装】扰动哈希值
+     */
+    private static int spread(int code) {
+        int h = code * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
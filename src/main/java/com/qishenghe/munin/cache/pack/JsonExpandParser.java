@@ -0,0 +1,183 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JSON扩展信息解析器（默认）
+ * 注：只解析最外层对象，嵌套对象与数组以原始JSON文本作为属性值，null值忽略；格式不合法时返回已解析的部分
+ *
+ * @author qishenghe
+ * @date 2026/10/19 15:40
+ * @change 2026/10/19 15:40 by qishenghe for init
+ */
+public class JsonExpandParser implements ExpandParser {
+
+    /**
+     * 实例
+     */
+    public static final JsonExpandParser INSTANCE = new JsonExpandParser();
+
+    @Override
+    public Map<String, String> parse(String expand) {
+        if (expand == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> result = new HashMap<>();
+        try {
+            parseObject(expand, 0, expand.length(), result);
+        } catch (NumberFormatException ignored) {
+            // 非法转义，保留已解析部分
+        }
+        return result;
+    }
+
+    /**
+     * 解析JSON对象（最外层）
+     *
+     * @param text 文本
+     * @param from 起始位置（含）
+     * @param to 结束位置（不含）
+     * @param result 解析结果
+     */
+    public void parseObject(CharSequence text, int from, int to, Map<String, String> result) {
+        int[] cursor = {skipBlank(text, from, to)};
+        if (cursor[0] >= to || text.charAt(cursor[0]) != '{') {
+            return;
+        }
+        cursor[0]++;
+        while (true) {
+            cursor[0] = skipBlank(text, cursor[0], to);
+            if (cursor[0] >= to || text.charAt(cursor[0]) == '}') {
+                return;
+            }
+            if (text.charAt(cursor[0]) == ',') {
+                cursor[0]++;
+                continue;
+            }
+            if (text.charAt(cursor[0]) != '"') {
+                return;
+            }
+            String key = readString(text, cursor, to);
+            cursor[0] = skipBlank(text, cursor[0], to);
+            if (key == null || cursor[0] >= to || text.charAt(cursor[0]) != ':') {
+                return;
+            }
+            cursor[0] = skipBlank(text, cursor[0] + 1, to);
+            if (cursor[0] >= to) {
+                return;
+            }
+            String value = readValue(text, cursor, to);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+    }
+
+    /**
+     * 【封装】读取属性值（字符串解转义，对象/数组保留原文，字面量保留原文，null返回null）
+     */
+    private static String readValue(CharSequence text, int[] cursor, int to) {
+        char first = text.charAt(cursor[0]);
+        if (first == '"') {
+            return readString(text, cursor, to);
+        }
+        int start = cursor[0];
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            boolean inString = false;
+            for (int i = start; i < to; i++) {
+                char c = text.charAt(i);
+                if (inString) {
+                    if (c == '\\') {
+                        i++;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && --depth == 0) {
+                    cursor[0] = i + 1;
+                    return text.subSequence(start, i + 1).toString();
+                }
+            }
+            cursor[0] = to;
+            return null;
+        }
+        int end = start;
+        while (end < to) {
+            char c = text.charAt(end);
+            if (c == ',' || c == '}' || Character.isWhitespace(c)) {
+                break;
+            }
+            end++;
+        }
+        cursor[0] = end;
+        String literal = text.subSequence(start, end).toString();
+        return "null".equals(literal) ? null : literal;
+    }
+
+    /**
+     * 【封装】读取字符串（cursor指向起始引号，读取后指向结束引号之后）
+     */
+    private static String readString(CharSequence text, int[] cursor, int to) {
+        StringBuilder builder = null;
+        int start = cursor[0] + 1;
+        for (int i = start; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                cursor[0] = i + 1;
+                return builder == null ? text.subSequence(start, i).toString() : builder.toString();
+            }
+            if (c == '\\' && i + 1 < to) {
+                if (builder == null) {
+                    builder = new StringBuilder(text.subSequence(start, i));
+                }
+                char escaped = text.charAt(++i);
+                switch (escaped) {
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'u':
+                        if (i + 4 < to) {
+                            builder.append((char) Integer.parseInt(text.subSequence(i + 1, i + 5).toString(), 16));
+                            i += 4;
+                        }
+                        break;
+                    default:
+                        builder.append(escaped);
+                }
+            } else if (builder != null) {
+                builder.append(c);
+            }
+        }
+        cursor[0] = to;
+        return null;
+    }
+
+    /**
+     * 【封装】跳过空白
+     */
+    private static int skipBlank(CharSequence text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+}
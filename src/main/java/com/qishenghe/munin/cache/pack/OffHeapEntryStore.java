@@ -0,0 +1,685 @@
+package com.qishenghe.munin.cache.pack;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * 堆外字典实体存储
+ * 注：整个字典写入一块堆外内存（紧凑二进制布局），哈希索引同样位于堆外；查询时只在命中后按需解码字符串、生成DictEntity，
+ * 堆内仅保留少量对象，大字典不再增加GC扫描与晋升压力
+ * 注：读取均为绝对位置读取，不改变缓冲区状态，多线程并发读取安全
+ *
+ * <pre>
+ * 布局（int均为大端序）：
+ * [0]  int 实体数量 count
+ * [4]  int 槽位数 slotCount（2的幂）
+ * [8]  int 是否带排序表（0：原始顺序即有序）
+ * [12] int 去重后的编码数量
+ * [16] 槽位表 slotCount * (int 编码哈希, int 位置+1)
+ *      记录偏移表 count * int
+ *      排序表 count * int（按sortNum稳定排序后的位置，可选）
+ *      字典编码、字典名称（字符串）
+ *      记录：byte 标志(bit0：sortNum为空), int sortNum, 字符串 code, 字符串 meaning, 字符串 expand
+ * 字符串：int 字节长度（-1：null）+ UTF-8字节（孤立的代理字符按3字节编码，保证原样还原）
+ * </pre>
+ *
+ * @author qishenghe
+ * @date 2026/10/20 10:40
+ * @change 2026/10/20 10:40 by qishenghe for init
+ */
+final class OffHeapEntryStore extends DictEntryStore {
+
+    /**
+     * 头部长度
+     */
+    private static final int HEADER_LENGTH = 16;
+
+    /**
+     * 槽位长度
+     */
+    private static final int SLOT_LENGTH = 8;
+
+    /**
+     * 记录标志：sortNum为空
+     */
+    private static final byte FLAG_SORT_NUM_NULL = 1;
+
+    /**
+     * 字典数据区（只做绝对位置读取）
+     */
+    private final transient ByteBuffer region;
+
+    /**
+     * 实体数量
+     */
+    private final transient int count;
+
+    /**
+     * 槽位掩码
+     */
+    private final transient int mask;
+
+    /**
+     * 去重后的编码数量
+     */
+    private final transient int distinct;
+
+    /**
+     * 记录偏移表起始位置
+     */
+    private final transient int offsetsBase;
+
+    /**
+     * 排序表起始位置（-1：无排序表）
+     */
+    private final transient int orderBase;
+
+    /**
+     * 字典编码
+     */
+    private final transient String dictCode;
+
+    /**
+     * 字典名称
+     */
+    private final transient String dictName;
+
+    /**
+     * 基于已写好的数据区构造
+     *
+     * @param region 字典数据区
+     */
+    OffHeapEntryStore(ByteBuffer region) {
+        this.region = region;
+        this.count = region.getInt(0);
+        int slotCount = region.getInt(4);
+        this.mask = slotCount - 1;
+        this.distinct = region.getInt(12);
+        this.offsetsBase = HEADER_LENGTH + slotCount * SLOT_LENGTH;
+        this.orderBase = region.getInt(8) == 0 ? -1 : offsetsBase + count * 4;
+        int stringBase = offsetsBase + count * 4 + (orderBase < 0 ? 0 : count * 4);
+        this.dictCode = readString(stringBase);
+        this.dictName = readString(skipString(stringBase));
+    }
+
+    /**
+     * 将字典写入堆外内存
+     *
+     * @param entries 字典实体（原始顺序）
+     * @param codes 编码（与entries平行）
+     * @param dictCode 字典编码
+     * @param dictName 字典名称
+     * @return 堆外存储
+     */
+    static OffHeapEntryStore create(DictEntity[] entries, String[] codes, String dictCode, String dictName) {
+        return new OffHeapEntryStore(encode(entries, codes, dictCode, dictName, true));
+    }
+
+    /**
+     * 将字典编码为数据区
+     *
+     * @param entries 字典实体（原始顺序）
+     * @param codes 编码（与entries平行）
+     * @param dictCode 字典编码
+     * @param dictName 字典名称
+     * @param direct true：堆外内存，false：堆内（仅用于临时写出）
+     * @return 数据区
+     */
+    static ByteBuffer encode(DictEntity[] entries, String[] codes, String dictCode, String dictName, boolean direct) {
+        int count = entries.length;
+        int slotCount = Integer.highestOneBit(Math.max(count, 1) << 1);
+        if (slotCount < count << 1) {
+            slotCount <<= 1;
+        }
+        long[] order = sortOrder(entries);
+
+        // 计算总长度
+        long length = encodedLength(entries, dictCode, dictName);
+        if (length > Integer.MAX_VALUE) {
+            throw new RuntimeException("字典[" + dictCode + "]超出堆外存储单区容量上限（2GB）");
+        }
+
+        ByteBuffer region = direct ? ByteBuffer.allocateDirect((int) length) : ByteBuffer.allocate((int) length);
+        int offsetsBase = HEADER_LENGTH + slotCount * SLOT_LENGTH;
+        int cursor = offsetsBase + count * 4;
+        // 排序表
+        if (order != null) {
+            for (int i = 0; i < count; i++) {
+                region.putInt(cursor, (int) order[i]);
+                cursor += 4;
+            }
+        }
+        cursor = writeString(region, cursor, dictCode);
+        cursor = writeString(region, cursor, dictName);
+        // 记录
+        for (int i = 0; i < count; i++) {
+            DictEntity single = entries[i];
+            region.putInt(offsetsBase + i * 4, cursor);
+            region.put(cursor, single.getSortNum() == null ? FLAG_SORT_NUM_NULL : 0);
+            region.putInt(cursor + 1, single.getSortNum() == null ? 0 : single.getSortNum());
+            cursor = writeString(region, cursor + 5, single.getCode());
+            cursor = writeString(region, cursor, single.getMeaning());
+            cursor = writeString(region, cursor, single.getExpand());
+        }
+        // 槽位表（编码重复时后入覆盖）
+        int mask = slotCount - 1;
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            int hash = hash(codes[i]);
+            int slot = spread(hash) & mask;
+            while (true) {
+                int base = HEADER_LENGTH + slot * SLOT_LENGTH;
+                int position = region.getInt(base + 4);
+                if (position == 0) {
+                    region.putInt(base, hash);
+                    region.putInt(base + 4, i + 1);
+                    distinct++;
+                    break;
+                }
+                String candidate = codes[position - 1];
+                if (candidate == null ? codes[i] == null : candidate.equals(codes[i])) {
+                    region.putInt(base + 4, i + 1);
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        // 头部
+        region.putInt(0, count);
+        region.putInt(4, slotCount);
+        region.putInt(8, order == null ? 0 : 1);
+        region.putInt(12, distinct);
+        return region;
+    }
+
+    /**
+     * 数据区长度（与encode结果一致，不生成数据区）
+     *
+     * @param entries 字典实体（原始顺序）
+     * @param dictCode 字典编码
+     * @param dictName 字典名称
+     * @return 数据区长度
+     */
+    static long encodedLength(DictEntity[] entries, String dictCode, String dictName) {
+        int count = entries.length;
+        int slotCount = Integer.highestOneBit(Math.max(count, 1) << 1);
+        if (slotCount < count << 1) {
+            slotCount <<= 1;
+        }
+        long length = HEADER_LENGTH + (long) slotCount * SLOT_LENGTH + (long) count * 4
+                        + (isSortedBySortNum(entries) ? 0L : (long) count * 4)
+                        + stringLength(dictCode) + stringLength(dictName);
+        for (DictEntity single : entries) {
+            length += 1 + 4 + stringLength(single.getCode()) + stringLength(single.getMeaning())
+                            + stringLength(single.getExpand());
+        }
+        return length;
+    }
+
+    @Override
+    int size() {
+        return count;
+    }
+
+    @Override
+    int indexOf(String code) {
+        int hash = hash(code);
+        int slot = spread(hash) & mask;
+        while (true) {
+            int base = HEADER_LENGTH + slot * SLOT_LENGTH;
+            int position = region.getInt(base + 4);
+            if (position == 0) {
+                return -1;
+            }
+            if (region.getInt(base) == hash && stringEquals(recordOffset(position - 1) + 5, code)) {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    DictEntity entity(int position) {
+        int offset = recordOffset(position);
+        DictEntity dictEntity = new DictEntity();
+        dictEntity.setDictCode(dictCode);
+        dictEntity.setDictName(dictName);
+        dictEntity.setSortNum((region.get(offset) & FLAG_SORT_NUM_NULL) != 0 ? null : region.getInt(offset + 1));
+        offset += 5;
+        dictEntity.setCode(readString(offset));
+        offset = skipString(offset);
+        dictEntity.setMeaning(readString(offset));
+        offset = skipString(offset);
+        dictEntity.setExpand(readString(offset));
+        return dictEntity;
+    }
+
+    /**
+     * 按位置读取编码（不生成实体）
+     *
+     * @param position 位置
+     * @return 编码
+     */
+    String code(int position) {
+        return readString(recordOffset(position) + 5);
+    }
+
+    @Override
+    String meaning(int position) {
+        return readString(skipString(recordOffset(position) + 5));
+    }
+
+    @Override
+    String expand(int position) {
+        return readString(skipString(skipString(recordOffset(position) + 5)));
+    }
+
+    /**
+     * 有序字典（只读，按位置访问时生成实体）
+     */
+    @Override
+    List<DictEntity> sortedList() {
+        return new SortedView();
+    }
+
+    @Override
+    Map<String, DictEntity> mapView() {
+        return new MapView();
+    }
+
+    @Override
+    boolean isDetached() {
+        return true;
+    }
+
+    @Override
+    ByteBuffer region(String dictCode, String dictName) {
+        return region.asReadOnlyBuffer();
+    }
+
+    @Override
+    long regionLength(String dictCode, String dictName) {
+        return region.remaining();
+    }
+
+    /**
+     * 字典编码
+     *
+     * @return 字典编码
+     */
+    String dictCode() {
+        return dictCode;
+    }
+
+    /**
+     * 字典名称
+     *
+     * @return 字典名称
+     */
+    String dictName() {
+        return dictName;
+    }
+
+    /**
+     * 去重后各编码的哈希值（直接读取槽位表，无需解码编码）
+     *
+     * @return 编码哈希值
+     */
+    int[] codeHashes() {
+        int[] hashes = new int[distinct];
+        int i = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            int base = HEADER_LENGTH + slot * SLOT_LENGTH;
+            if (region.getInt(base + 4) != 0) {
+                hashes[i++] = region.getInt(base);
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * 【封装】记录偏移
+     */
+    private int recordOffset(int position) {
+        return region.getInt(offsetsBase + position * 4);
+    }
+
+    /**
+     * 【封装】读取字符串
+     */
+    private String readString(int offset) {
+        return readString(region, offset);
+    }
+
+    /**
+     * 读取字符串
+     *
+     * @param region 数据区
+     * @param offset 位置
+     * @return 字符串
+     */
+    static String readString(ByteBuffer region, int offset) {
+        int length = region.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        char[] chars = new char[length];
+        int cursor = offset + 4;
+        int end = cursor + length;
+        int count = 0;
+        while (cursor < end) {
+            int b = region.get(cursor++);
+            if (b >= 0) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (region.get(cursor++) & 0x3F));
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((region.get(cursor++) & 0x3F) << 6)
+                                | (region.get(cursor++) & 0x3F));
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((region.get(cursor++) & 0x3F) << 12)
+                                | ((region.get(cursor++) & 0x3F) << 6) | (region.get(cursor++) & 0x3F);
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * 【封装】跳过字符串，返回下一字段位置
+     */
+    private int skipString(int offset) {
+        return offset + 4 + Math.max(region.getInt(offset), 0);
+    }
+
+    /**
+     * 【封装】比较数据区中的字符串与目标字符串（不解码，逐字符按UTF-8编码比较）
+     */
+    private boolean stringEquals(int offset, String value) {
+        int length = region.getInt(offset);
+        if (length < 0 || value == null) {
+            return length < 0 && value == null;
+        }
+        int cursor = offset + 4;
+        int end = cursor + length;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (cursor >= end || region.get(cursor++) != (byte) c) {
+                    return false;
+                }
+            } else if (c < 0x800) {
+                if (cursor + 2 > end
+                                || region.get(cursor++) != (byte) (0xC0 | (c >> 6))
+                                || region.get(cursor++) != (byte) (0x80 | (c & 0x3F))) {
+                    return false;
+                }
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                if (cursor + 4 > end
+                                || region.get(cursor++) != (byte) (0xF0 | (codePoint >> 18))
+                                || region.get(cursor++) != (byte) (0x80 | ((codePoint >> 12) & 0x3F))
+                                || region.get(cursor++) != (byte) (0x80 | ((codePoint >> 6) & 0x3F))
+                                || region.get(cursor++) != (byte) (0x80 | (codePoint & 0x3F))) {
+                    return false;
+                }
+            } else {
+                if (cursor + 3 > end
+                                || region.get(cursor++) != (byte) (0xE0 | (c >> 12))
+                                || region.get(cursor++) != (byte) (0x80 | ((c >> 6) & 0x3F))
+                                || region.get(cursor++) != (byte) (0x80 | (c & 0x3F))) {
+                    return false;
+                }
+            }
+        }
+        return cursor == end;
+    }
+
+    /**
+     * 字符串编码后的长度（含长度前缀）
+     *
+     * @param value 字符串
+     * @return 字节数
+     */
+    static long stringLength(String value) {
+        if (value == null) {
+            return 4;
+        }
+        long length = 4;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 写入字符串
+     *
+     * @param region 数据区
+     * @param offset 位置
+     * @param value 字符串
+     * @return 下一字段位置
+     */
+    static int writeString(ByteBuffer region, int offset, String value) {
+        if (value == null) {
+            region.putInt(offset, -1);
+            return offset + 4;
+        }
+        int cursor = offset + 4;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                region.put(cursor++, (byte) c);
+            } else if (c < 0x800) {
+                region.put(cursor++, (byte) (0xC0 | (c >> 6)));
+                region.put(cursor++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                region.put(cursor++, (byte) (0xF0 | (codePoint >> 18)));
+                region.put(cursor++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                region.put(cursor++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                region.put(cursor++, (byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                region.put(cursor++, (byte) (0xE0 | (c >> 12)));
+                region.put(cursor++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                region.put(cursor++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        region.putInt(offset, cursor - offset - 4);
+        return cursor;
+    }
+
+    /**
+     * 【封装】按sortNum稳定排序后的位置（高32位sortNum，低32位位置；原始顺序已有序时返回null，sortNum为空按-1处理）
+     */
+    private static long[] sortOrder(DictEntity[] entries) {
+        if (isSortedBySortNum(entries)) {
+            return null;
+        }
+        long[] order = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            order[i] = ((long) sortKey(entries[i]) << 32) | i;
+        }
+        Arrays.sort(order);
+        return order;
+    }
+
+    /**
+     * 【封装】原始顺序是否已按sortNum有序（sortNum为空按-1处理）
+     */
+    private static boolean isSortedBySortNum(DictEntity[] entries) {
+        for (int i = 1; i < entries.length; i++) {
+            if (sortKey(entries[i]) < sortKey(entries[i - 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 【封装】排序键
+     */
+    private static int sortKey(DictEntity entity) {
+        Integer sortNum = entity.getSortNum();
+        return sortNum == null ? -1 : sortNum;
+    }
+
+    /**
+     * 【封装】编码哈希值
+     */
+    private static int hash(String code) {
+        return code == null ? 0 : code.hashCode();
+    }
+
+    /**
+     * 【封装】扰动哈希值，降低低位冲突
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 序列化时写出数据区字节，反序列化时重新载入堆外内存
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        ByteBuffer source = region.asReadOnlyBuffer();
+        source.clear();
+        byte[] bytes = new byte[source.remaining()];
+        source.get(bytes);
+        return new SerializedForm(bytes);
+    }
+
+    /**
+     * 序列化形式
+     */
+    private static final class SerializedForm implements Serializable {
+
+        private final byte[] bytes;
+
+        private SerializedForm(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            ByteBuffer region = ByteBuffer.allocateDirect(bytes.length);
+            region.put(bytes);
+            region.flip();
+            return new OffHeapEntryStore(region);
+        }
+    }
+
+    /**
+     * 有序只读视图
+     */
+    private final class SortedView extends AbstractList<DictEntity> implements RandomAccess {
+
+        @Override
+        public DictEntity get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            }
+            return entity(orderBase < 0 ? index : region.getInt(orderBase + index * 4));
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * 只读Map视图（按槽位顺序遍历）
+     */
+    private final class MapView extends AbstractMap<String, DictEntity> {
+
+        @Override
+        public DictEntity get(Object key) {
+            if (key != null && !(key instanceof String)) {
+                return null;
+            }
+            int position = indexOf((String) key);
+            return position < 0 ? null : entity(position);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key == null || key instanceof String) && indexOf((String) key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return distinct;
+        }
+
+        @Override
+        public Set<Entry<String, DictEntity>> entrySet() {
+            return new AbstractSet<Entry<String, DictEntity>>() {
+                @Override
+                public Iterator<Entry<String, DictEntity>> iterator() {
+                    return new SlotIterator();
+                }
+
+                @Override
+                public int size() {
+                    return distinct;
+                }
+            };
+        }
+    }
+
+    /**
+     * 按槽位顺序遍历
+     */
+    private final class SlotIterator implements Iterator<Map.Entry<String, DictEntity>> {
+
+        private int slot = nextSlot(0);
+
+        private int nextSlot(int from) {
+            while (from <= mask && region.getInt(HEADER_LENGTH + from * SLOT_LENGTH + 4) == 0) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot <= mask;
+        }
+
+        @Override
+        public Map.Entry<String, DictEntity> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DictEntity dictEntity = entity(region.getInt(HEADER_LENGTH + slot * SLOT_LENGTH + 4) - 1);
+            slot = nextSlot(slot + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(dictEntity.getCode(), dictEntity);
+        }
+    }
+
+}
@@ -0,0 +1,333 @@
+package com.qishenghe.munin.gravel.job;
+
+import com.qishenghe.munin.cache.job.DictPackInitJob;
+import com.qishenghe.munin.gravel.Gravel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * 文件数据源（CSV、TSV、JSONL，支持gzip压缩）
+ * 注：未压缩文件以内存映射方式读取，按字段位置直接解码映射列，大文件分块并行解析；压缩文件按块流式解压解析
+ * 注：文件需为UTF-8编码；CSV/TSV有表头时字段映射为列名，无表头时为列序号（从0开始）；JSONL字段映射为最外层属性名
+ *
+ * @author qishenghe
+ * @date 2026/10/20 18:40
+ * @change 2026/10/20 18:40 by qishenghe for init
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class GravelFile extends Gravel {
+
+    /**
+     * 文件格式
+     */
+    public enum Format {
+
+        /**
+         * 逗号分隔（支持双引号包裹字段，字段内双引号以两个双引号转义）
+         */
+        CSV,
+
+        /**
+         * 制表符分隔（不支持引号包裹）
+         */
+        TSV,
+
+        /**
+         * 每行一个JSON对象
+         */
+        JSONL
+
+    }
+
+    /**
+     * 资源文件路径
+     */
+    private String filePath;
+
+    /**
+     * 文件格式（为空时按扩展名推断：.csv、.tsv、.jsonl/.ndjson）
+     */
+    private Format format;
+
+    /**
+     * gzip压缩
+     */
+    private boolean gzip;
+
+    /**
+     * CSV/TSV首行为表头
+     */
+    private boolean header;
+
+    /**
+     * 变更探测时计算文件校验和（默认只比较修改时间与大小）
+     */
+    private boolean probeChecksum;
+
+    /**
+     * 【列名】字典编码【not null】
+     */
+    private String colDictCode;
+
+    /**
+     * 【列名】字典名称
+     */
+    private String colDictName;
+
+    /**
+     * 【列名】编码【not null】
+     */
+    private String colCode;
+
+    /**
+     * 【列名】值【not null】
+     */
+    private String colMeaning;
+
+    /**
+     * 【列名】序号
+     */
+    private String colSortNum;
+
+    /**
+     * 【列名】扩展信息
+     */
+    private String colExpand;
+
+    /**
+     * Builder
+     */
+    public static class Builder {
+
+        /**
+         * 资源文件路径
+         */
+        private String filePath;
+
+        /**
+         * 文件格式（为空时按扩展名推断：.csv、.tsv、.jsonl/.ndjson）
+         */
+        private Format format;
+
+        /**
+         * gzip压缩（为空时按扩展名.gz推断）
+         */
+        private Boolean gzip;
+
+        /**
+         * CSV/TSV首行为表头
+         */
+        private boolean header = true;
+
+        /**
+         * 变更探测时计算文件校验和（默认只比较修改时间与大小）
+         */
+        private boolean probeChecksum;
+
+        /**
+         * 【列名】字典编码【not null】
+         */
+        private String colDictCode;
+
+        /**
+         * 【列名】字典名称
+         */
+        private String colDictName;
+
+        /**
+         * 【列名】编码【not null】
+         */
+        private String colCode;
+
+        /**
+         * 【列名】值【not null】
+         */
+        private String colMeaning;
+
+        /**
+         * 【列名】序号
+         */
+        private String colSortNum;
+
+        /**
+         * 【列名】扩展信息
+         */
+        private String colExpand;
+
+        /**
+         * set filePath
+         * @param filePath filePath
+         * @return builder
+         */
+        public synchronized Builder setFilePath (String filePath) {
+            this.filePath = filePath;
+            return this;
+        }
+
+        /**
+         * set format
+         * @param format format
+         * @return builder
+         */
+        public synchronized Builder setFormat (Format format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * set gzip
+         * @param gzip gzip
+         * @return builder
+         */
+        public synchronized Builder setGzip (boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        /**
+         * set header
+         * @param header header
+         * @return builder
+         */
+        public synchronized Builder setHeader (boolean header) {
+            this.header = header;
+            return this;
+        }
+
+        /**
+         * set probeChecksum
+         * @param probeChecksum probeChecksum
+         * @return builder
+         */
+        public synchronized Builder setProbeChecksum (boolean probeChecksum) {
+            this.probeChecksum = probeChecksum;
+            return this;
+        }
+
+        /**
+         * set colDictCode
+         * @param colDictCode colDictCode
+         * @return builder
+         */
+        public synchronized Builder setColDictCode (String colDictCode) {
+            this.colDictCode = colDictCode;
+            return this;
+        }
+
+        /**
+         * set colDictName
+         * @param colDictName colDictName
+         * @return builder
+         */
+        public synchronized Builder setColDictName (String colDictName) {
+            this.colDictName = colDictName;
+            return this;
+        }
+
+        /**
+         * set colCode
+         * @param colCode colCode
+         * @return builder
+         */
+        public synchronized Builder setColCode (String colCode) {
+            this.colCode = colCode;
+            return this;
+        }
+
+        /**
+         * set colMeaning
+         * @param colMeaning colMeaning
+         * @return builder
+         */
+        public synchronized Builder setColMeaning (String colMeaning) {
+            this.colMeaning = colMeaning;
+            return this;
+        }
+
+        /**
+         * set colSortNum
+         * @param colSortNum colSortNum
+         * @return builder
+         */
+        public synchronized Builder setColSortNum (String colSortNum) {
+            this.colSortNum = colSortNum;
+            return this;
+        }
+
+        /**
+         * set colExpand
+         * @param colExpand colExpand
+         * @return builder
+         */
+        public synchronized Builder setColExpand (String colExpand) {
+            this.colExpand = colExpand;
+            return this;
+        }
+
+        /**
+         * build
+         * @return shortcut
+         */
+        public GravelFile build () {
+            // 检查资源文件
+            if (StringUtils.isEmpty(filePath)) {
+                throw new RuntimeException("资源文件未知");
+            }
+            // 按扩展名推断压缩与格式
+            String fileName = filePath.toLowerCase(Locale.ROOT);
+            boolean gzipFile = gzip == null ? fileName.endsWith(".gz") : gzip;
+            if (fileName.endsWith(".gz")) {
+                fileName = fileName.substring(0, fileName.length() - 3);
+            }
+            Format fileFormat = format;
+            if (fileFormat == null) {
+                if (fileName.endsWith(".csv")) {
+                    fileFormat = Format.CSV;
+                } else if (fileName.endsWith(".tsv")) {
+                    fileFormat = Format.TSV;
+                } else if (fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson")) {
+                    fileFormat = Format.JSONL;
+                } else {
+                    throw new RuntimeException("资源文件格式未知 : " + filePath);
+                }
+            }
+            // 检查必要字段映射
+            if (StringUtils.isEmpty(colDictCode) || StringUtils.isEmpty(colCode) || StringUtils.isEmpty(colMeaning)) {
+                throw new RuntimeException("必要字段映射为空，必要映射 : [colDictCode][colCode][colMeaning]");
+            }
+
+            GravelFile gravelFile = new GravelFile();
+            gravelFile.setFilePath(filePath);
+            gravelFile.setFormat(fileFormat);
+            gravelFile.setGzip(gzipFile);
+            gravelFile.setHeader(header);
+            gravelFile.setProbeChecksum(probeChecksum);
+            gravelFile.setColDictCode(colDictCode);
+            gravelFile.setColDictName(colDictName);
+            gravelFile.setColCode(colCode);
+            gravelFile.setColMeaning(colMeaning);
+            gravelFile.setColSortNum(colSortNum);
+            gravelFile.setColExpand(colExpand);
+
+            return gravelFile;
+        }
+
+    }
+
+    /**
+     * create init job
+     *
+     * @return dict pack init job
+     */
+    @Override
+    public DictPackInitJob createInitJob() {
+        GravelFileInitJob initJob = new GravelFileInitJob();
+        initJob.setGravelFile(this);
+        return initJob;
+    }
+
+}
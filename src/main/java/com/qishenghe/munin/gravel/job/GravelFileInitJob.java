@@ -0,0 +1,571 @@
+package com.qishenghe.munin.gravel.job;
+
+import com.qishenghe.munin.cache.job.DictPackStreamJob;
+import com.qishenghe.munin.cache.pack.DictEntity;
+import com.qishenghe.munin.cache.pack.DictEntitySink;
+import com.qishenghe.munin.cache.pack.JsonExpandParser;
+import com.qishenghe.munin.pool.MuninThreadPool;
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 文件数据源初始化Job
+ * 注：字段按字节位置切分，只解码映射列；分隔符、换行、引号均为单字节，UTF-8多字节字符不会被误切分
+ *
+ * @author qishenghe
+ * @date 2026/10/20 18:40
+ * @change 2026/10/20 18:40 by qishenghe for init
+ */
+@Data
+public class GravelFileInitJob implements DictPackStreamJob {
+
+    /**
+     * 分块大小（未压缩文件按此大小切分为若干块并行解析，块边界对齐到记录结束处）
+     */
+    private static final int CHUNK_SIZE = 32 << 20;
+
+    /**
+     * 压缩文件单次解压的块大小（单条记录超出时自动扩容）
+     */
+    private static final int READ_BLOCK_SIZE = 4 << 20;
+
+    /**
+     * 查找块边界时的读取窗口
+     */
+    private static final int SCAN_WINDOW = 64 << 10;
+
+    /**
+     * 映射列：字典编码、字典名称、编码、值、序号、扩展信息
+     */
+    private static final int DICT_CODE = 0;
+    private static final int DICT_NAME = 1;
+    private static final int CODE = 2;
+    private static final int MEANING = 3;
+    private static final int SORT_NUM = 4;
+    private static final int EXPAND = 5;
+    private static final int SLOT_COUNT = 6;
+
+    /**
+     * shortcut file
+     */
+    private GravelFile gravelFile;
+
+    /**
+     * 流式读取（单线程）
+     *
+     * @param sink 接收端
+     */
+    @Override
+    public void stream(DictEntitySink sink) {
+        stream(sink, null);
+    }
+
+    /**
+     * 流式读取（未压缩的大文件分块在CPU线程池中并行解析）
+     *
+     * @param sink 接收端（并行解析时需线程安全）
+     * @param muninThreadPool 会话线程池【null_maybe】
+     */
+    @Override
+    public void stream(DictEntitySink sink, MuninThreadPool muninThreadPool) {
+        Path path = Paths.get(gravelFile.getFilePath());
+        try {
+            if (gravelFile.isGzip()) {
+                streamGzip(path, sink);
+            } else {
+                streamMapped(path, sink, muninThreadPool);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[gravel][file]文件读取失败，原因 : " + e.getMessage());
+        }
+    }
+
+    /**
+     * 变更探测（文件修改时间与大小，按配置附加CRC32校验和）
+     *
+     * @return 探测值
+     */
+    @Override
+    public String probe() {
+        Path path = Paths.get(gravelFile.getFilePath());
+        try {
+            String result = Files.getLastModifiedTime(path).toMillis() + ":" + Files.size(path);
+            if (!gravelFile.isProbeChecksum()) {
+                return result;
+            }
+            CRC32 crc = new CRC32();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                for (long start = 0; start < size; start += CHUNK_SIZE) {
+                    crc.update(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, size - start)));
+                }
+            }
+            return result + ":" + Long.toHexString(crc.getValue());
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[gravel][file]变更探测失败，原因 : " + e.getMessage());
+        }
+    }
+
+    /**
+     * 【封装】内存映射读取（按块映射、按块解析）
+     */
+    private void streamMapped(Path path, DictEntitySink sink, MuninThreadPool muninThreadPool) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = bomLength(channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, 3)), 0, (int) Math.min(size, 3));
+            if (dataStart >= size) {
+                return;
+            }
+            // 表头
+            Layout layout = null;
+            if (gravelFile.getFormat() != GravelFile.Format.JSONL) {
+                List<String> headerFields = null;
+                if (gravelFile.isHeader()) {
+                    long headerEnd = recordStartAfter(channel, dataStart, dataStart, size);
+                    ByteBuffer headerRegion = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, headerEnd - dataStart);
+                    headerFields = new ArrayList<>();
+                    readRecord(headerRegion, 0, headerRegion.limit(), null, headerFields);
+                    dataStart = headerEnd;
+                }
+                layout = createLayout(headerFields);
+            }
+            // 分块并行解析（按块序号推送，保持文件顺序：同一字典内的条目顺序与重复编码的取舍与逐行读取一致）
+            List<long[]> chunks = new ArrayList<>();
+            for (long start = dataStart; start < size; ) {
+                long end = size - start <= CHUNK_SIZE ? size : recordStartAfter(channel, start, start + CHUNK_SIZE, size);
+                chunks.add(new long[]{start, end});
+                start = end;
+            }
+            Layout chunkLayout = layout;
+            GravelWorkers.runOrdered(chunks.size(), Runtime.getRuntime().availableProcessors(),
+                            muninThreadPool == null ? null : muninThreadPool.getThreadPoolCpu(), sink,
+                            (index, chunkSink) -> {
+                                long[] chunk = chunks.get(index);
+                                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+                                parseRegion(region, 0, region.limit(), chunkLayout, chunkSink);
+                            });
+        }
+    }
+
+    /**
+     * 【封装】gzip流式读取（按块解压，每次解析块内完整的记录，剩余部分并入下一块）
+     */
+    private void streamGzip(Path path, DictEntitySink sink) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path), 1 << 16)) {
+            byte[] block = new byte[READ_BLOCK_SIZE];
+            int length = 0;
+            boolean eof = false;
+            boolean bomPending = true;
+            boolean headerPending = gravelFile.getFormat() != GravelFile.Format.JSONL && gravelFile.isHeader();
+            Layout layout = gravelFile.getFormat() == GravelFile.Format.JSONL || headerPending ? null : createLayout(null);
+            while (true) {
+                while (!eof && length < block.length) {
+                    int read = in.read(block, length, block.length - length);
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        length += read;
+                    }
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(block, 0, length);
+                int pos = 0;
+                if (bomPending) {
+                    pos = bomLength(buffer, 0, length);
+                    bomPending = false;
+                }
+                if (eof && pos >= length) {
+                    return;
+                }
+                if (headerPending) {
+                    int headerEnd = firstRecordEnd(buffer, pos, length);
+                    if (headerEnd < 0 && !eof) {
+                        block = grow(block, pos, length);
+                        length -= pos;
+                        continue;
+                    }
+                    headerEnd = headerEnd < 0 ? length : headerEnd;
+                    List<String> headerFields = new ArrayList<>();
+                    readRecord(buffer, pos, headerEnd, null, headerFields);
+                    layout = createLayout(headerFields);
+                    headerPending = false;
+                    pos = headerEnd;
+                }
+                int end = eof ? length : lastRecordEnd(buffer, pos, length);
+                if (end <= pos && !eof) {
+                    // 单条记录超出块大小
+                    block = grow(block, pos, length);
+                    length -= pos;
+                    continue;
+                }
+                parseRegion(buffer, pos, end, layout, sink);
+                if (eof) {
+                    return;
+                }
+                System.arraycopy(block, end, block, 0, length - end);
+                length -= end;
+            }
+        }
+    }
+
+    /**
+     * 【封装】丢弃已处理部分并扩容
+     */
+    private static byte[] grow(byte[] block, int consumed, int length) {
+        byte[] grown = new byte[block.length << 1];
+        System.arraycopy(block, consumed, grown, 0, length - consumed);
+        return grown;
+    }
+
+    /**
+     * 【封装】解析区间内的记录
+     */
+    private void parseRegion(ByteBuffer buffer, int pos, int to, Layout layout, DictEntitySink sink) {
+        if (gravelFile.getFormat() == GravelFile.Format.JSONL) {
+            parseJsonLines(buffer, pos, to, sink);
+        } else {
+            parseDelimited(buffer, pos, to, layout, sink);
+        }
+    }
+
+    /**
+     * 【封装】解析CSV/TSV记录（空行忽略）
+     */
+    private void parseDelimited(ByteBuffer buffer, int pos, int to, Layout layout, DictEntitySink sink) {
+        List<String> fields = new ArrayList<>();
+        String[] values = new String[SLOT_COUNT];
+        while (pos < to) {
+            byte first = buffer.get(pos);
+            if (first == '\n') {
+                pos++;
+                continue;
+            }
+            if (first == '\r' && (pos + 1 == to || buffer.get(pos + 1) == '\n')) {
+                pos += 2;
+                continue;
+            }
+            fields.clear();
+            pos = readRecord(buffer, pos, to, layout.fieldMapped, fields);
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                int field = layout.slotFields[slot];
+                values[slot] = field < 0 || field >= fields.size() ? null : fields.get(field);
+            }
+            sink.accept(createEntity(values));
+        }
+    }
+
+    /**
+     * 【封装】读取一条CSV/TSV记录（字段按字节位置切分，只解码映射列，未映射列以null占位）
+     *
+     * @param buffer 数据
+     * @param pos 记录起始位置
+     * @param to 区间结束位置
+     * @param fieldMapped 各列是否映射（null：全部解码）
+     * @param fields 字段值
+     * @return 下一条记录的起始位置
+     */
+    private int readRecord(ByteBuffer buffer, int pos, int to, boolean[] fieldMapped, List<String> fields) {
+        boolean csv = gravelFile.getFormat() == GravelFile.Format.CSV;
+        byte delimiter = csv ? (byte) ',' : (byte) '\t';
+        while (true) {
+            int field = fields.size();
+            boolean mapped = fieldMapped == null || field < fieldMapped.length && fieldMapped[field];
+            int start = pos;
+            int end;
+            if (csv && pos < to && buffer.get(pos) == '"') {
+                // 引号包裹字段（可含分隔符与换行，两个双引号转义为一个）
+                boolean escaped = false;
+                start = ++pos;
+                while (pos < to) {
+                    if (buffer.get(pos) == '"') {
+                        if (pos + 1 < to && buffer.get(pos + 1) == '"') {
+                            escaped = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                end = pos;
+                // 闭合引号之后至分隔符之前的多余字符忽略
+                while (pos < to && buffer.get(pos) != delimiter && buffer.get(pos) != '\n') {
+                    pos++;
+                }
+                String value = mapped ? decode(buffer, start, end) : null;
+                fields.add(escaped && value != null ? value.replace("\"\"", "\"") : value);
+            } else {
+                while (pos < to && buffer.get(pos) != delimiter && buffer.get(pos) != '\n') {
+                    pos++;
+                }
+                end = pos;
+                if (end > start && buffer.get(end - 1) == '\r' && (pos == to || buffer.get(pos) == '\n')) {
+                    end--;
+                }
+                // 空字段视为null（CSV中带引号的空字段为空字符串）
+                fields.add(mapped && end > start ? decode(buffer, start, end) : null);
+            }
+            if (pos >= to || buffer.get(pos++) == '\n') {
+                return pos;
+            }
+        }
+    }
+
+    /**
+     * 【封装】解析JSONL记录（每行一个对象，按最外层属性名映射，空行忽略）
+     */
+    private void parseJsonLines(ByteBuffer buffer, int pos, int to, DictEntitySink sink) {
+        String[] columns = columns();
+        String[] values = new String[SLOT_COUNT];
+        Map<String, String> attributes = new HashMap<>();
+        while (pos < to) {
+            int end = pos;
+            while (end < to && buffer.get(end) != '\n') {
+                end++;
+            }
+            int next = end + 1;
+            if (end > pos && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            String line = decode(buffer, pos, end);
+            pos = next;
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            attributes.clear();
+            try {
+                JsonExpandParser.INSTANCE.parseObject(line, 0, line.length(), attributes);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("[gravel][file]JSON格式错误 : " + line);
+            }
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                values[slot] = columns[slot] == null ? null : attributes.get(columns[slot]);
+            }
+            sink.accept(createEntity(values));
+        }
+    }
+
+    /**
+     * 【封装】生成字典实体
+     */
+    private static DictEntity createEntity(String[] values) {
+        DictEntity singleEntity = new DictEntity();
+        singleEntity.setDictCode(values[DICT_CODE]);
+        singleEntity.setDictName(values[DICT_NAME]);
+        singleEntity.setCode(values[CODE]);
+        singleEntity.setMeaning(values[MEANING]);
+        if (values[SORT_NUM] != null) {
+            try {
+                singleEntity.setSortNum(Integer.parseInt(values[SORT_NUM].trim()));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("[gravel][file]序号格式错误 : " + values[SORT_NUM]);
+            }
+        }
+        singleEntity.setExpand(values[EXPAND]);
+        return singleEntity;
+    }
+
+    /**
+     * 【封装】映射列名（未映射为null）
+     */
+    private String[] columns() {
+        String[] columns = new String[SLOT_COUNT];
+        columns[DICT_CODE] = gravelFile.getColDictCode();
+        columns[DICT_NAME] = gravelFile.getColDictName();
+        columns[CODE] = gravelFile.getColCode();
+        columns[MEANING] = gravelFile.getColMeaning();
+        columns[SORT_NUM] = gravelFile.getColSortNum();
+        columns[EXPAND] = gravelFile.getColExpand();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            columns[slot] = StringUtils.isEmpty(columns[slot]) ? null : columns[slot];
+        }
+        return columns;
+    }
+
+    /**
+     * 【封装】解析列位置（有表头时按列名，无表头时映射即列序号）
+     */
+    private Layout createLayout(List<String> headerFields) {
+        String[] columns = columns();
+        int[] slotFields = new int[SLOT_COUNT];
+        int maxField = -1;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (columns[slot] == null) {
+                slotFields[slot] = -1;
+                continue;
+            }
+            if (headerFields != null) {
+                slotFields[slot] = -1;
+                for (int i = 0; i < headerFields.size(); i++) {
+                    if (columns[slot].equals(StringUtils.trim(headerFields.get(i)))) {
+                        slotFields[slot] = i;
+                        break;
+                    }
+                }
+                if (slotFields[slot] < 0) {
+                    throw new RuntimeException("[gravel][file]表头中不存在列 : " + columns[slot]);
+                }
+            } else {
+                try {
+                    slotFields[slot] = Integer.parseInt(columns[slot].trim());
+                } catch (NumberFormatException e) {
+                    throw new RuntimeException("[gravel][file]无表头时字段映射需为列序号 : " + columns[slot]);
+                }
+                if (slotFields[slot] < 0) {
+                    throw new RuntimeException("[gravel][file]列序号不合法 : " + columns[slot]);
+                }
+            }
+            maxField = Math.max(maxField, slotFields[slot]);
+        }
+        boolean[] fieldMapped = new boolean[maxField + 1];
+        for (int field : slotFields) {
+            if (field >= 0) {
+                fieldMapped[field] = true;
+            }
+        }
+        return new Layout(slotFields, fieldMapped);
+    }
+
+    /**
+     * 【封装】从记录起始位置start开始，查找nominal之后首条记录的起始位置（CSV需跟踪引号状态，引号内换行不是记录边界）
+     */
+    private long recordStartAfter(FileChannel channel, long start, long nominal, long size) throws IOException {
+        boolean csv = gravelFile.getFormat() == GravelFile.Format.CSV;
+        boolean quoted = false;
+        if (csv && nominal > start) {
+            ByteBuffer skipped = channel.map(FileChannel.MapMode.READ_ONLY, start, nominal - start);
+            for (int i = 0, limit = skipped.limit(); i < limit; i++) {
+                if (skipped.get(i) == '"') {
+                    quoted = !quoted;
+                }
+            }
+        }
+        ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW);
+        for (long pos = nominal; pos < size; ) {
+            window.clear();
+            int read = channel.read(window, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if (csv && b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    /**
+     * 【封装】区间内首条记录的结束位置（不存在时返回-1）
+     */
+    private int firstRecordEnd(ByteBuffer buffer, int from, int to) {
+        boolean csv = gravelFile.getFormat() == GravelFile.Format.CSV;
+        boolean quoted = false;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (csv && b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 【封装】区间内最后一条完整记录的结束位置（from须为记录起始位置；不存在时返回from）
+     */
+    private int lastRecordEnd(ByteBuffer buffer, int from, int to) {
+        if (gravelFile.getFormat() != GravelFile.Format.CSV) {
+            for (int i = to - 1; i >= from; i--) {
+                if (buffer.get(i) == '\n') {
+                    return i + 1;
+                }
+            }
+            return from;
+        }
+        int end = from;
+        boolean quoted = false;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                end = i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * 【封装】UTF-8 BOM长度
+     */
+    private static int bomLength(ByteBuffer buffer, int from, int to) {
+        return to - from >= 3 && buffer.get(from) == (byte) 0xEF && buffer.get(from + 1) == (byte) 0xBB
+                        && buffer.get(from + 2) == (byte) 0xBF ? 3 : 0;
+    }
+
+    /**
+     * 【封装】解码字段（UTF-8；纯ASCII字段直接按字节生成字符）
+     */
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < 0) {
+                ByteBuffer slice = buffer.duplicate();
+                slice.limit(to).position(from);
+                return StandardCharsets.UTF_8.decode(slice).toString();
+            }
+            chars[i - from] = (char) b;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 列布局
+     */
+    private static final class Layout {
+
+        /**
+         * 各映射列所在列位置（未映射为-1）
+         */
+        private final int[] slotFields;
+
+        /**
+         * 各列是否映射
+         */
+        private final boolean[] fieldMapped;
+
+        private Layout(int[] slotFields, boolean[] fieldMapped) {
+            this.slotFields = slotFields;
+            this.fieldMapped = fieldMapped;
+        }
+    }
+
+}
@@ -8,6 +8,7 @@ import lombok.EqualsAndHashCode;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.sql.DataSource;
+import java.util.List;
 
 /**
  * @author shenghe.qi
@@ -18,6 +19,53 @@ import javax.sql.DataSource;
 @EqualsAndHashCode(callSuper = true)
 public class GravelJdbc extends Gravel {
 
+    /**
+     * 默认每次拉取行数
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * 默认最大并发连接数
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+
+    /**
+     * 默认删除标记值
+     */
+    public static final String DEFAULT_DELETED_VALUE = "1";
+
+    /**
+     * 默认版本回看量（更新时间列为毫秒；版本号、自增序号列为序号差）
+     */
+    public static final long DEFAULT_VERSION_LAG = 5000L;
+
+    /**
+     * 分区方式
+     */
+    public enum PartitionMode {
+
+        /**
+         * 不分区（单条查询）
+         */
+        NONE,
+
+        /**
+         * 按字典编码分组（每组一个IN条件，未列出的字典编码归入剩余分区）
+         */
+        DICT_CODE,
+
+        /**
+         * 按整型键区间等分
+         */
+        KEY_RANGE,
+
+        /**
+         * 按整型键哈希取模
+         */
+        HASH
+
+    }
+
     /**
      * 数据源
      */
@@ -33,6 +81,11 @@ public class GravelJdbc extends Gravel {
      */
     private String sourceSql;
 
+    /**
+     * 变更探测sql（如select max(update_time), count(*) from t；结果未变化时跳过加载，为空时每次均加载）
+     */
+    private String probeSql;
+
     /**
      * 数据库类型
      */
@@ -68,6 +121,66 @@ public class GravelJdbc extends Gravel {
      */
     private String colExpand;
 
+    /**
+     * 【列名】版本（增量加载时使用，须单调递增，如版本号、自增序号或精确到毫秒的更新时间；刷新时重读不小于“上次最大版本 - 版本回看量”的行，以补上晚提交或版本相同的行）
+     */
+    private String colVersion;
+
+    /**
+     * 【列名】删除标记（逻辑删除列；增量加载时标记为删除的行从字典中移除，全量加载时直接忽略）
+     */
+    private String colDeleted;
+
+    /**
+     * 版本回看量（增量加载时重读的窗口，应不小于最长事务的耗时；仅对数值、时间类型的版本生效，其余类型只重读版本相同的行）
+     */
+    private long versionLag = DEFAULT_VERSION_LAG;
+
+    /**
+     * 删除标记值（删除标记列的值与之相等时视为已删除）
+     */
+    private String deletedValue = DEFAULT_DELETED_VALUE;
+
+    /**
+     * 每次从数据库拉取的行数（0：驱动默认；MySQL需在连接串中开启useCursorFetch=true，或设为Integer.MIN_VALUE逐行流式读取）
+     */
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * 分区方式
+     */
+    private PartitionMode partitionMode = PartitionMode.NONE;
+
+    /**
+     * 分区列（按键区间、按哈希取模分区时使用，须为整型列）
+     */
+    private String partitionColumn;
+
+    /**
+     * 分区字典编码（按字典编码分区时使用，每组一个分区，不在任何分组中的字典不加载）
+     */
+    private List<List<String>> partitionDictCodes;
+
+    /**
+     * 分区区间下界（含；按键区间分区时使用，首个分区不限下界）
+     */
+    private long partitionRangeFrom;
+
+    /**
+     * 分区区间上界（不含；按键区间分区时使用，末个分区不限上界）
+     */
+    private long partitionRangeTo;
+
+    /**
+     * 分区数（按键区间、按哈希取模分区时使用）
+     */
+    private int partitionCount;
+
+    /**
+     * 最大并发连接数（分区并发读取时同时占用的连接数上限）
+     */
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
     /**
      * Builder
      */
@@ -88,6 +201,11 @@ public class GravelJdbc extends Gravel {
          */
         private String sourceSql;
 
+        /**
+         * 变更探测sql（如select max(update_time), count(*) from t；结果未变化时跳过加载，为空时每次均加载）
+         */
+        private String probeSql;
+
         /**
          * 数据库类型
          */
@@ -123,6 +241,66 @@ public class GravelJdbc extends Gravel {
          */
         private String colExpand;
 
+        /**
+         * 【列名】版本（增量加载时使用，须单调递增，如版本号、自增序号或精确到毫秒的更新时间；刷新时重读不小于“上次最大版本 - 版本回看量”的行，以补上晚提交或版本相同的行）
+         */
+        private String colVersion;
+
+        /**
+         * 【列名】删除标记（逻辑删除列；增量加载时标记为删除的行从字典中移除，全量加载时直接忽略）
+         */
+        private String colDeleted;
+
+        /**
+         * 版本回看量（增量加载时重读的窗口，应不小于最长事务的耗时；仅对数值、时间类型的版本生效，其余类型只重读版本相同的行）
+         */
+        private long versionLag = DEFAULT_VERSION_LAG;
+
+        /**
+         * 删除标记值（删除标记列的值与之相等时视为已删除）
+         */
+        private String deletedValue = DEFAULT_DELETED_VALUE;
+
+        /**
+         * 每次从数据库拉取的行数（0：驱动默认；MySQL需在连接串中开启useCursorFetch=true，或设为Integer.MIN_VALUE逐行流式读取）
+         */
+        private int fetchSize = DEFAULT_FETCH_SIZE;
+
+        /**
+         * 分区方式
+         */
+        private PartitionMode partitionMode = PartitionMode.NONE;
+
+        /**
+         * 分区列（按键区间、按哈希取模分区时使用，须为整型列）
+         */
+        private String partitionColumn;
+
+        /**
+         * 分区字典编码（按字典编码分区时使用，每组一个分区，不在任何分组中的字典不加载）
+         */
+        private List<List<String>> partitionDictCodes;
+
+        /**
+         * 分区区间下界（含；按键区间分区时使用，首个分区不限下界）
+         */
+        private long partitionRangeFrom;
+
+        /**
+         * 分区区间上界（不含；按键区间分区时使用，末个分区不限上界）
+         */
+        private long partitionRangeTo;
+
+        /**
+         * 分区数（按键区间、按哈希取模分区时使用）
+         */
+        private int partitionCount;
+
+        /**
+         * 最大并发连接数（分区并发读取时同时占用的连接数上限）
+         */
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
         /**
          * set datasource
          * @param dataSource datasource
@@ -153,6 +331,16 @@ public class GravelJdbc extends Gravel {
             return this;
         }
 
+        /**
+         * set probeSql
+         * @param probeSql probeSql
+         * @return builder
+         */
+        public synchronized Builder setProbeSql (String probeSql) {
+            this.probeSql = probeSql;
+            return this;
+        }
+
         /**
          * set sourceDbType
          * @param sourceDbType sourceDbType
@@ -223,6 +411,108 @@ public class GravelJdbc extends Gravel {
             return this;
         }
 
+        /**
+         * set colVersion（开启增量加载）
+         * @param colVersion colVersion
+         * @return builder
+         */
+        public synchronized Builder setColVersion (String colVersion) {
+            this.colVersion = colVersion;
+            return this;
+        }
+
+        /**
+         * set versionLag
+         * @param versionLag versionLag
+         * @return builder
+         */
+        public synchronized Builder setVersionLag (long versionLag) {
+            this.versionLag = versionLag;
+            return this;
+        }
+
+        /**
+         * set colDeleted
+         * @param colDeleted colDeleted
+         * @return builder
+         */
+        public synchronized Builder setColDeleted (String colDeleted) {
+            this.colDeleted = colDeleted;
+            return this;
+        }
+
+        /**
+         * set deletedValue
+         * @param deletedValue deletedValue
+         * @return builder
+         */
+        public synchronized Builder setDeletedValue (String deletedValue) {
+            this.deletedValue = deletedValue;
+            return this;
+        }
+
+        /**
+         * set fetchSize
+         * @param fetchSize fetchSize
+         * @return builder
+         */
+        public synchronized Builder setFetchSize (int fetchSize) {
+            this.fetchSize = fetchSize;
+            return this;
+        }
+
+        /**
+         * set partition by dictCode（每组字典编码一个分区，未列出的字典编码另成一个剩余分区）
+         * @param partitionDictCodes partitionDictCodes
+         * @return builder
+         */
+        public synchronized Builder setPartitionByDictCode (List<List<String>> partitionDictCodes) {
+            this.partitionMode = PartitionMode.DICT_CODE;
+            this.partitionDictCodes = partitionDictCodes;
+            return this;
+        }
+
+        /**
+         * set partition by key range（[from, to)等分为partitionCount个分区，区间外的键并入首末分区）
+         * @param partitionColumn partitionColumn
+         * @param partitionRangeFrom partitionRangeFrom
+         * @param partitionRangeTo partitionRangeTo
+         * @param partitionCount partitionCount
+         * @return builder
+         */
+        public synchronized Builder setPartitionByKeyRange (String partitionColumn, long partitionRangeFrom,
+                        long partitionRangeTo, int partitionCount) {
+            this.partitionMode = PartitionMode.KEY_RANGE;
+            this.partitionColumn = partitionColumn;
+            this.partitionRangeFrom = partitionRangeFrom;
+            this.partitionRangeTo = partitionRangeTo;
+            this.partitionCount = partitionCount;
+            return this;
+        }
+
+        /**
+         * set partition by hash（按键取模分为partitionCount个分区）
+         * @param partitionColumn partitionColumn
+         * @param partitionCount partitionCount
+         * @return builder
+         */
+        public synchronized Builder setPartitionByHash (String partitionColumn, int partitionCount) {
+            this.partitionMode = PartitionMode.HASH;
+            this.partitionColumn = partitionColumn;
+            this.partitionCount = partitionCount;
+            return this;
+        }
+
+        /**
+         * set maxConnections
+         * @param maxConnections maxConnections
+         * @return builder
+         */
+        public synchronized Builder setMaxConnections (int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
         /**
          * build
          * @return shortcut
@@ -241,10 +531,40 @@ public class GravelJdbc extends Gravel {
                 throw new RuntimeException("必要字段映射为空，必要映射 : [colDictCode][colCode][colMeaning]");
             }
 
+            // 检查删除标记
+            if (!StringUtils.isEmpty(colDeleted) && deletedValue == null) {
+                throw new RuntimeException("删除标记值为空");
+            }
+            // 检查版本回看量
+            if (versionLag < 0) {
+                throw new RuntimeException("版本回看量不能为负数");
+            }
+            // 检查拉取行数
+            if (fetchSize < 0 && fetchSize != Integer.MIN_VALUE) {
+                throw new RuntimeException("拉取行数不合法 : " + fetchSize);
+            }
+            // 检查分区
+            if (partitionMode == PartitionMode.DICT_CODE && (partitionDictCodes == null || partitionDictCodes.isEmpty())) {
+                throw new RuntimeException("分区字典编码为空");
+            }
+            if ((partitionMode == PartitionMode.KEY_RANGE || partitionMode == PartitionMode.HASH)
+                            && (StringUtils.isEmpty(partitionColumn) || partitionCount < 1)) {
+                throw new RuntimeException("分区列为空或分区数不合法");
+            }
+            if (partitionMode == PartitionMode.KEY_RANGE
+                            && (partitionRangeFrom >= partitionRangeTo || partitionRangeTo - partitionRangeFrom < 0)) {
+                throw new RuntimeException("分区区间不合法 : [" + partitionRangeFrom + ", " + partitionRangeTo + ")");
+            }
+            // 检查并发连接数
+            if (maxConnections < 1) {
+                throw new RuntimeException("最大并发连接数不合法 : " + maxConnections);
+            }
+
             GravelJdbc gravelJdbc = new GravelJdbc();
             gravelJdbc.setDataSource(dataSource);
             gravelJdbc.setSourceTable(sourceTable);
             gravelJdbc.setSourceSql(sourceSql);
+            gravelJdbc.setProbeSql(probeSql);
             gravelJdbc.setSourceDbType(sourceDbType);
             gravelJdbc.setColDictCode(colDictCode);
             gravelJdbc.setColDictName(colDictName);
@@ -252,6 +572,18 @@ public class GravelJdbc extends Gravel {
             gravelJdbc.setColMeaning(colMeaning);
             gravelJdbc.setColSortNum(colSortNum);
             gravelJdbc.setColExpand(colExpand);
+            gravelJdbc.setColVersion(colVersion);
+            gravelJdbc.setColDeleted(colDeleted);
+            gravelJdbc.setVersionLag(versionLag);
+            gravelJdbc.setDeletedValue(deletedValue);
+            gravelJdbc.setFetchSize(fetchSize);
+            gravelJdbc.setPartitionMode(partitionMode);
+            gravelJdbc.setPartitionColumn(partitionColumn);
+            gravelJdbc.setPartitionDictCodes(partitionDictCodes);
+            gravelJdbc.setPartitionRangeFrom(partitionRangeFrom);
+            gravelJdbc.setPartitionRangeTo(partitionRangeTo);
+            gravelJdbc.setPartitionCount(partitionCount);
+            gravelJdbc.setMaxConnections(maxConnections);
 
             return gravelJdbc;
         }
@@ -2,15 +2,30 @@ package com.qishenghe.munin.gravel.job;
 
 import com.alibaba.druid.DbType;
 import com.alibaba.druid.sql.builder.impl.SQLSelectBuilderImpl;
-import com.alibaba.druid.util.JdbcUtils;
 import com.alibaba.druid.util.StringUtils;
-import com.qishenghe.munin.cache.job.DictPackInitJob;
+import com.qishenghe.munin.cache.job.DictPackDeltaJob;
 import com.qishenghe.munin.cache.pack.DictEntity;
+import com.qishenghe.munin.cache.pack.DictEntitySink;
+import com.qishenghe.munin.cache.pack.DictPackBuilder;
+import com.qishenghe.munin.pool.MuninThreadPool;
 import lombok.Data;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * gravel
@@ -20,7 +35,12 @@ import java.util.Map;
  * @change 4/18/22 4:37 PM by shenghe.qi@relxtech.com for init
  */
 @Data
-public class GravelJdbcInitJob implements DictPackInitJob {
+public class GravelJdbcInitJob implements DictPackDeltaJob {
+
+    /**
+     * 单个IN条件的参数上限（超出时拆分为多个IN条件以OR连接，兼容Oracle等数据库的列表长度限制）
+     */
+    private static final int IN_BATCH_SIZE = 1000;
 
     /**
      * shortcut jdbc
@@ -28,39 +48,270 @@ public class GravelJdbcInitJob implements DictPackInitJob {
     private GravelJdbc gravelJdbc;
 
     /**
-     * init
+     * 流式读取（按拉取行数分批读取结果集，逐行生成字典实体推送至接收端，不缓存整个结果集；分区依次读取）
      *
-     * @return 标准输出
-     * @author shenghe.qi
-     * @date 10/9/22 10:34 AM
-     * @change 10/9/22 10:34 AM by shenghe.qi for init
+     * @param sink 接收端
+     */
+    @Override
+    public void stream(DictEntitySink sink) {
+        stream(sink, null);
+    }
+
+    /**
+     * 流式读取（配置分区时各分区在IO线程池中并发读取，同时占用的连接数不超过最大并发连接数）
+     *
+     * @param sink 接收端（分区并发读取时需线程安全）
+     * @param muninThreadPool 会话线程池【null_maybe】
+     */
+    @Override
+    public void stream(DictEntitySink sink, MuninThreadPool muninThreadPool) {
+        load(null, sink, null, null, muninThreadPool);
+    }
+
+    /**
+     * 流式读取指定字典（字典编码以IN条件下推至数据库）
+     *
+     * @param sink 接收端
+     * @param dictCodes 字典编码
+     * @param muninThreadPool 会话线程池【null_maybe】
+     */
+    @Override
+    public void stream(DictEntitySink sink, Set<String> dictCodes, MuninThreadPool muninThreadPool) {
+        load(null, sink, null, dictCodes, muninThreadPool);
+    }
+
+    /**
+     * 增量读取（未配置版本列时退化为全量读取，且不返回水位）
+     *
+     * @param since 上次加载后的最大版本（null：全量加载）【null_maybe】
+     * @param delta 增量接收器
+     * @param muninThreadPool 会话线程池【null_maybe】
+     * @return 本次加载后的最大版本（没有新数据时返回since）【null_maybe】
      */
     @Override
-    public List<DictEntity> init() {
+    public Object streamDelta(Object since, DictPackBuilder.Delta delta, MuninThreadPool muninThreadPool) {
+        return streamDelta(since, delta, null, muninThreadPool);
+    }
+
+    /**
+     * 增量读取指定字典（字典编码以IN条件下推至数据库）
+     *
+     * @param since 上次加载后的最大版本（null：全量加载）【null_maybe】
+     * @param delta 增量接收器
+     * @param dictCodes 字典编码（null：全部）【null_maybe】
+     * @param muninThreadPool 会话线程池【null_maybe】
+     * @return 本次加载后的最大版本（没有新数据时返回since）【null_maybe】
+     */
+    @Override
+    public Object streamDelta(Object since, DictPackBuilder.Delta delta, Set<String> dictCodes,
+                    MuninThreadPool muninThreadPool) {
+
+        if (StringUtils.isEmpty(gravelJdbc.getColVersion())) {
+            load(null, delta, null, dictCodes, muninThreadPool);
+            return null;
+        }
+        Watermark watermark = new Watermark(since);
+        load(watermark, delta, since == null ? null : delta, dictCodes, muninThreadPool);
+        return watermark.value;
+    }
+
+    /**
+     * 【封装】读取各分区（dictCodes为null时读取全部字典）
+     */
+    private void load (Watermark watermark, DictEntitySink sink, DictPackBuilder.Delta delta, Set<String> dictCodes,
+                    MuninThreadPool muninThreadPool) {
 
+        List<Partition> partitions = createPartitions(dictCodes);
+        GravelWorkers.run(partitions.size(), gravelJdbc.getMaxConnections(),
+                        muninThreadPool == null ? null : muninThreadPool.getThreadPoolIo(), sink,
+                        (index, partitionSink) -> query(partitions.get(index), watermark, partitionSink, delta));
+    }
+
+    /**
+     * 变更探测（执行探测sql，各行各列拼接为探测值）
+     *
+     * @return 探测值（未配置探测sql时返回null）
+     */
+    @Override
+    public String probe() {
+
+        if (StringUtils.isEmpty(gravelJdbc.getProbeSql())) {
+            return null;
+        }
+        try (Connection connection = gravelJdbc.getDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(gravelJdbc.getProbeSql())) {
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            StringBuilder result = new StringBuilder();
+            while (resultSet.next()) {
+                for (int i = 1; i <= columnCount; i++) {
+                    result.append(resultSet.getString(i)).append(i == columnCount ? ';' : ',');
+                }
+            }
+            return result.toString();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[gravel][jdbc]变更探测失败，原因 : " + e.getMessage());
+        }
+    }
+
+    /**
+     * 【封装】执行单个分区的查询并逐行推送（增量加载时查询不小于“水位 - 版本回看量”的行）
+     */
+    private void query (Partition partition, Watermark watermark, DictEntitySink sink, DictPackBuilder.Delta delta) {
+
+        Object since = watermark == null ? null : watermark.since;
         // 创建查询sql
-        String querySql = createQuerySql();
-        // 执行sql
-        List<Map<String, Object>> mapList;
-        try {
-            mapList = JdbcUtils.executeQuery(gravelJdbc.getDataSource(), querySql);
-        } catch (Exception e) {
+        String querySql = createQuerySql(partition, since != null);
+        // 执行sql并逐行推送
+        try (Connection connection = gravelJdbc.getDataSource().getConnection()) {
+            // 部分驱动（如PostgreSQL）仅在事务内按拉取行数使用游标
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit && gravelJdbc.getFetchSize() > 0) {
+                connection.setAutoCommit(false);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(querySql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(gravelJdbc.getFetchSize());
+                int parameterIndex = 1;
+                for (Object param : partition.params) {
+                    statement.setObject(parameterIndex++, param);
+                }
+                for (String dictCode : partition.dictCodes) {
+                    statement.setObject(parameterIndex++, dictCode);
+                }
+                if (since != null) {
+                    statement.setObject(parameterIndex, lowerBound(since, gravelJdbc.getVersionLag()));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    processQueryResult(resultSet, sink, watermark, delta);
+                }
+            } finally {
+                if (autoCommit != connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+        } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException("[gravel][jdbc]数据库查询失败，原因 : " + e.getMessage());
         }
-        // 将查询结果处理为标准输出
-        return processQueryResult(mapList);
+    }
+
+    /**
+     * 【封装】创建分区（分区条件作用于临时资源表别名，不分区时返回单个无条件分区；
+     * 指定字典编码时按字典编码分区只保留相关的编码，其他分区方式在各分区上追加字典编码条件）
+     */
+    private List<Partition> createPartitions (Set<String> dictCodes) {
+
+        List<Partition> partitions = new ArrayList<>();
+        List<String> scope = dictCodes == null ? Collections.emptyList() : new ArrayList<>(dictCodes);
+        if (dictCodes != null && dictCodes.isEmpty()) {
+            return partitions;
+        }
+        String column = "tmp." + gravelJdbc.getPartitionColumn();
+        int count = gravelJdbc.getPartitionCount();
+
+        switch (gravelJdbc.getPartitionMode()) {
+            case DICT_CODE:
+                // 每组字典编码一个IN条件（参数绑定）
+                Set<String> listed = new LinkedHashSet<>();
+                for (List<String> group : gravelJdbc.getPartitionDictCodes()) {
+                    List<Object> groupDictCodes = new ArrayList<>();
+                    for (String dictCode : group == null ? Collections.<String>emptyList() : group) {
+                        listed.add(dictCode);
+                        if (dictCodes == null || dictCodes.contains(dictCode)) {
+                            groupDictCodes.add(dictCode);
+                        }
+                    }
+                    if (!groupDictCodes.isEmpty()) {
+                        partitions.add(new Partition(inPredicate(groupDictCodes.size()), groupDictCodes,
+                                        Collections.emptyList()));
+                    }
+                }
+                // 未列出的字典编码（含空编码）归入剩余分区，结果与不分区的查询一致
+                if (dictCodes == null && listed.isEmpty()) {
+                    partitions.add(new Partition(null, Collections.emptyList(), Collections.emptyList()));
+                } else if (dictCodes == null) {
+                    partitions.add(new Partition("NOT (" + inPredicate(listed.size()) + ") OR tmp."
+                                    + gravelJdbc.getColDictCode() + " IS NULL", new ArrayList<>(listed), Collections.emptyList()));
+                } else {
+                    List<String> unlisted = new ArrayList<>(dictCodes);
+                    unlisted.removeAll(listed);
+                    if (!unlisted.isEmpty()) {
+                        partitions.add(new Partition(null, Collections.emptyList(), unlisted));
+                    }
+                }
+                return partitions;
+            case KEY_RANGE:
+                // [from, to)等分，首个分区含下界以外的键与空键，末个分区含上界以外的键
+                long from = gravelJdbc.getPartitionRangeFrom();
+                long span = gravelJdbc.getPartitionRangeTo() - from;
+                count = (int) Math.min(count, span);
+                long step = span / count + (span % count == 0 ? 0 : 1);
+                for (int i = 0; i < count; i++) {
+                    long lower = from + step * i;
+                    long upper = lower + step;
+                    String where;
+                    if (count == 1) {
+                        where = null;
+                    } else if (i == 0) {
+                        where = column + " < " + upper + " OR " + column + " IS NULL";
+                    } else if (i == count - 1) {
+                        where = column + " >= " + lower;
+                    } else {
+                        where = column + " >= " + lower + " AND " + column + " < " + upper;
+                    }
+                    partitions.add(new Partition(where, Collections.emptyList(), scope));
+                }
+                break;
+            case HASH:
+                // 按键取模（取绝对值兼容负数键），空键并入首个分区
+                String mod = gravelJdbc.getSourceDbType() == DbType.sqlserver
+                                ? "ABS(" + column + " % " + count + ")"
+                                : "ABS(MOD(" + column + ", " + count + "))";
+                for (int i = 0; i < count; i++) {
+                    String where = count == 1 ? null
+                                    : i == 0 ? mod + " = 0 OR " + column + " IS NULL"
+                                    : mod + " = " + i;
+                    partitions.add(new Partition(where, Collections.emptyList(), scope));
+                }
+                break;
+            default:
+                partitions.add(new Partition(null, Collections.emptyList(), scope));
+                break;
+        }
+        return partitions;
+    }
+
+    /**
+     * 【封装】字典编码IN条件（参数绑定；超出单个IN条件的参数上限时拆分并以OR连接）
+     */
+    private String inPredicate (int count) {
+
+        String column = "tmp." + gravelJdbc.getColDictCode();
+        StringBuilder where = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i % IN_BATCH_SIZE == 0) {
+                where.append(i == 0 ? "" : ") OR ").append(column).append(" IN (?");
+            } else {
+                where.append(", ?");
+            }
+        }
+        return where.append(")").toString();
     }
 
     /**
      * 创建查询sql
      *
+     * @param partition 分区
+     * @param incremental 是否追加版本条件（参数绑定，位于分区参数之后）
      * @return query sql
      * @author shenghe.qi
      * @date 10/9/22 11:28 AM
      * @change 10/9/22 11:28 AM by shenghe.qi for init
      */
-    private String createQuerySql () {
+    private String createQuerySql (Partition partition, boolean incremental) {
 
         if (gravelJdbc.getSourceDbType() == null) {
             gravelJdbc.setSourceDbType(DbType.mysql);
@@ -103,59 +354,211 @@ public class GravelJdbcInitJob implements DictPackInitJob {
             builder.selectWithAlias(alias + "." + gravelJdbc.getColExpand(), gravelJdbc.getColExpand());
         }
 
+        if (!StringUtils.isEmpty(gravelJdbc.getColVersion())) {
+            builder.selectWithAlias(alias + "." + gravelJdbc.getColVersion(), gravelJdbc.getColVersion());
+        }
+
+        if (!StringUtils.isEmpty(gravelJdbc.getColDeleted())) {
+            builder.selectWithAlias(alias + "." + gravelJdbc.getColDeleted(), gravelJdbc.getColDeleted());
+        }
+
+        if (partition.where != null) {
+            builder.where(partition.where);
+        }
+
+        if (!partition.dictCodes.isEmpty()) {
+            builder.whereAnd(inPredicate(partition.dictCodes.size()));
+        }
+
+        if (incremental) {
+            builder.whereAnd(alias + "." + gravelJdbc.getColVersion() + " >= ?");
+        }
+
         return builder.toString();
     }
 
     /**
-     * 处理查询结果
+     * 处理查询结果（列位置只解析一次，按类型读取；标记为删除的行增量加载时推送删除，全量加载时忽略）
      *
-     * @param mapList 查询结果
-     * @return 处理结果
+     * @param resultSet 查询结果
+     * @param sink 接收端
+     * @param watermark 水位（非增量读取时为null）【null_maybe】
+     * @param delta 增量接收器（全量加载时为null）【null_maybe】
+     * @throws SQLException 读取失败
      * @since 1.0.0
      * @author qishenghe
      * @date 4/18/22 6:09 PM
      * @change 4/18/22 6:09 PM by shenghe.qi@relxtech.com for init
      */
-    private List<DictEntity> processQueryResult (List<Map<String, Object>> mapList) {
+    private void processQueryResult (ResultSet resultSet, DictEntitySink sink, Watermark watermark,
+                    DictPackBuilder.Delta delta) throws SQLException {
+
+        int dictCodeIndex = columnIndex(resultSet, gravelJdbc.getColDictCode());
+        int dictNameIndex = columnIndex(resultSet, gravelJdbc.getColDictName());
+        int codeIndex = columnIndex(resultSet, gravelJdbc.getColCode());
+        int meaningIndex = columnIndex(resultSet, gravelJdbc.getColMeaning());
+        int sortNumIndex = columnIndex(resultSet, gravelJdbc.getColSortNum());
+        int expandIndex = columnIndex(resultSet, gravelJdbc.getColExpand());
+        int versionIndex = watermark == null ? 0 : columnIndex(resultSet, gravelJdbc.getColVersion());
+        int deletedIndex = columnIndex(resultSet, gravelJdbc.getColDeleted());
+        Object maxVersion = null;
+
+        while (resultSet.next()) {
+
+            if (versionIndex > 0) {
+                maxVersion = Watermark.max(maxVersion, resultSet.getObject(versionIndex));
+            }
 
-        List<DictEntity> resultList = new ArrayList<>();
+            DictEntity singleEntity = new DictEntity();
 
-        if (mapList != null && mapList.size() > 0) {
+            if (dictCodeIndex > 0) {
+                singleEntity.setDictCode(resultSet.getString(dictCodeIndex));
+            }
 
-            for (Map<String, Object> singleMap : mapList) {
+            if (dictNameIndex > 0) {
+                singleEntity.setDictName(resultSet.getString(dictNameIndex));
+            }
 
-                DictEntity singleEntity = new DictEntity();
+            if (codeIndex > 0) {
+                singleEntity.setCode(resultSet.getString(codeIndex));
+            }
 
-                if (!StringUtils.isEmpty(gravelJdbc.getColDictCode())) {
-                    singleEntity.setDictCode(singleMap.get(gravelJdbc.getColDictCode()) == null ? null : singleMap.get(gravelJdbc.getColDictCode()).toString());
-                }
+            if (meaningIndex > 0) {
+                singleEntity.setMeaning(resultSet.getString(meaningIndex));
+            }
 
-                if (!StringUtils.isEmpty(gravelJdbc.getColDictName())) {
-                    singleEntity.setDictName(singleMap.get(gravelJdbc.getColDictName()) == null ? null : singleMap.get(gravelJdbc.getColDictName()).toString());
-                }
+            if (sortNumIndex > 0) {
+                int sortNum = resultSet.getInt(sortNumIndex);
+                singleEntity.setSortNum(resultSet.wasNull() ? null : sortNum);
+            }
 
-                if (!StringUtils.isEmpty(gravelJdbc.getColCode())) {
-                    singleEntity.setCode(singleMap.get(gravelJdbc.getColCode()) == null ? null : singleMap.get(gravelJdbc.getColCode()).toString());
-                }
+            if (expandIndex > 0) {
+                singleEntity.setExpand(resultSet.getString(expandIndex));
+            }
 
-                if (!StringUtils.isEmpty(gravelJdbc.getColMeaning())) {
-                    singleEntity.setMeaning(singleMap.get(gravelJdbc.getColMeaning()) == null ? null : singleMap.get(gravelJdbc.getColMeaning()).toString());
+            if (deletedIndex > 0 && gravelJdbc.getDeletedValue().equals(resultSet.getString(deletedIndex))) {
+                if (delta != null) {
+                    delta.delete(singleEntity.getDictCode(), singleEntity.getCode());
                 }
+                continue;
+            }
 
-                if (!StringUtils.isEmpty(gravelJdbc.getColSortNum())) {
-                    singleEntity.setSortNum(singleMap.get(gravelJdbc.getColSortNum()) == null ? null : Integer.parseInt(singleMap.get(gravelJdbc.getColSortNum()).toString()));
-                }
+            sink.accept(singleEntity);
+        }
 
-                if (!StringUtils.isEmpty(gravelJdbc.getColExpand())) {
-                    singleEntity.setExpand(singleMap.get(gravelJdbc.getColExpand()) == null ? null : singleMap.get(gravelJdbc.getColExpand()).toString());
-                }
+        if (watermark != null) {
+            watermark.advance(maxVersion);
+        }
+    }
 
-                resultList.add(singleEntity);
-            }
+    /**
+     * 【封装】列位置（未映射的列返回0）
+     */
+    private static int columnIndex (ResultSet resultSet, String column) throws SQLException {
+        return StringUtils.isEmpty(column) ? 0 : resultSet.findColumn(column);
+    }
 
+    /**
+     * 【封装】增量查询的版本下界（水位减去回看量；重读的行由增量合并按编码覆盖，结果不变）
+     *
+     * 注：数值类型按序号差、时间类型按毫秒回看；其余类型无法计算，只重读版本相同的行
+     *
+     * @param since 上次加载后的最大版本
+     * @param lag 版本回看量
+     * @return 版本下界
+     */
+    private static Object lowerBound (Object since, long lag) {
+        if (lag <= 0) {
+            return since;
         }
+        if (since instanceof Integer || since instanceof Long || since instanceof Short || since instanceof Byte) {
+            return ((Number) since).longValue() - lag;
+        }
+        if (since instanceof BigDecimal) {
+            return ((BigDecimal) since).subtract(BigDecimal.valueOf(lag));
+        }
+        if (since instanceof BigInteger) {
+            return ((BigInteger) since).subtract(BigInteger.valueOf(lag));
+        }
+        if (since instanceof Number) {
+            return ((Number) since).doubleValue() - lag;
+        }
+        if (since instanceof Date) {
+            return new Timestamp(((Date) since).getTime() - lag);
+        }
+        if (since instanceof Temporal && ((Temporal) since).isSupported(ChronoUnit.MILLIS)) {
+            return ((Temporal) since).minus(lag, ChronoUnit.MILLIS);
+        }
+        return since;
+    }
 
-        return resultList;
+    /**
+     * 水位（各分区读取到的最大版本）
+     */
+    private static final class Watermark {
+
+        /**
+         * 上次加载后的最大版本【null_maybe】
+         */
+        private final Object since;
+
+        /**
+         * 当前最大版本【null_maybe】
+         */
+        private Object value;
+
+        private Watermark(Object since) {
+            this.since = since;
+            this.value = since;
+        }
+
+        /**
+         * 推进水位
+         */
+        private synchronized void advance(Object version) {
+            value = max(value, version);
+        }
+
+        /**
+         * 【封装】较大的版本（版本列的值须可比较）
+         */
+        @SuppressWarnings("unchecked")
+        private static Object max(Object current, Object version) {
+            if (version == null) {
+                return current;
+            }
+            if (!(version instanceof Comparable)) {
+                throw new RuntimeException("[gravel][jdbc]版本列的值不可比较 : " + version.getClass().getName());
+            }
+            return current == null || ((Comparable<Object>) version).compareTo(current) > 0 ? version : current;
+        }
+    }
+
+    /**
+     * 分区
+     */
+    private static final class Partition {
+
+        /**
+         * 分区条件【null_maybe】
+         */
+        private final String where;
+
+        /**
+         * 绑定参数
+         */
+        private final List<Object> params;
+
+        /**
+         * 字典编码范围（追加为IN条件，参数位于分区参数之后；为空时不限）
+         */
+        private final List<String> dictCodes;
+
+        private Partition(String where, List<Object> params, List<String> dictCodes) {
+            this.where = where;
+            this.params = params;
+            this.dictCodes = dictCodes;
+        }
     }
 
 }
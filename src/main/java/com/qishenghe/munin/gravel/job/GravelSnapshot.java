@@ -0,0 +1,95 @@
+package com.qishenghe.munin.gravel.job;
+
+import com.qishenghe.munin.cache.job.DictPackInitJob;
+import com.qishenghe.munin.gravel.Gravel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 快照目录数据源（读取发布目录中的最新快照，监听目录变更自动切换，不访问数据库）
+ *
+ * @author qishenghe
+ * @date 2026/10/20 15:10
+ * @change 2026/10/20 15:10 by qishenghe for init
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class GravelSnapshot extends Gravel {
+
+    /**
+     * 快照发布目录
+     */
+    private String snapshotDir;
+
+    /**
+     * 监听目录变更
+     */
+    private boolean watch;
+
+    /**
+     * Builder
+     */
+    public static class Builder {
+
+        /**
+         * 快照发布目录
+         */
+        private String snapshotDir;
+
+        /**
+         * 监听目录变更
+         */
+        private boolean watch = true;
+
+        /**
+         * set snapshotDir
+         * @param snapshotDir 快照发布目录（与发布方MuninSession.Builder#setSnapshotPublishDir一致）
+         * @return builder
+         */
+        public synchronized Builder setSnapshotDir (String snapshotDir) {
+            this.snapshotDir = snapshotDir;
+            return this;
+        }
+
+        /**
+         * set watch
+         * @param watch 监听目录变更（新快照发布后立即刷新）
+         * @return builder
+         */
+        public synchronized Builder setWatch (boolean watch) {
+            this.watch = watch;
+            return this;
+        }
+
+        /**
+         * build
+         * @return shortcut
+         */
+        public GravelSnapshot build () {
+            // 检查目录
+            if (StringUtils.isEmpty(snapshotDir)) {
+                throw new RuntimeException("快照发布目录未知");
+            }
+
+            GravelSnapshot gravelSnapshot = new GravelSnapshot();
+            gravelSnapshot.setSnapshotDir(snapshotDir);
+            gravelSnapshot.setWatch(watch);
+            return gravelSnapshot;
+        }
+
+    }
+
+    /**
+     * create init job
+     *
+     * @return dict pack init job
+     */
+    @Override
+    public DictPackInitJob createInitJob() {
+        GravelSnapshotInitJob initJob = new GravelSnapshotInitJob();
+        initJob.setGravelSnapshot(this);
+        return initJob;
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.qishenghe.munin.gravel.job;
+
+import com.qishenghe.munin.cache.job.DictPackChangeNotifier;
+import com.qishenghe.munin.cache.job.DictPackProvider;
+import com.qishenghe.munin.cache.pack.DictEntity;
+import com.qishenghe.munin.cache.pack.DictPack;
+import com.qishenghe.munin.cache.pack.DictPackConfig;
+import com.qishenghe.munin.cache.pack.DictPackSnapshot;
+import com.qishenghe.munin.cache.pack.DictSinglePack;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * gravel snapshot
+ * 注：最新快照未变化时复用已映射的容器；目录中暂无快照时返回空容器，待快照发布后由目录监听触发刷新
+ *
+ * @author qishenghe
+ * @date 2026/10/20 15:10
+ * @change 2026/10/20 15:10 by qishenghe for init
+ */
+@Data
+@EqualsAndHashCode(of = "gravelSnapshot")
+@ToString(of = "gravelSnapshot")
+public class GravelSnapshotInitJob implements DictPackProvider, DictPackChangeNotifier {
+
+    /**
+     * shortcut snapshot
+     */
+    private GravelSnapshot gravelSnapshot;
+
+    /**
+     * 最近一次载入的快照文件
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Path loadedPath;
+
+    /**
+     * 最近一次载入的容器
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private DictPack loadedPack;
+
+    /**
+     * 最近一次载入所用的构建配置
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private DictPackConfig loadedConfig;
+
+    /**
+     * 目录监听线程
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Thread watchThread;
+
+    /**
+     * 目录监听服务
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private WatchService watchService;
+
+    /**
+     * 变更探测（发布目录中最新快照的文件名）
+     *
+     * @return 探测值（目录中暂无快照时返回null）
+     */
+    @Override
+    public String probe() {
+        try {
+            Path latest = DictPackSnapshot.latest(Paths.get(gravelSnapshot.getSnapshotDir()));
+            return latest == null ? null : latest.getFileName().toString();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * init（供直接获取源数据的调用方使用，将快照中的字典展开为源数据）
+     *
+     * @return 标准输出
+     */
+    @Override
+    public List<DictEntity> init() {
+        DictPack dictPack = provide(DictPackConfig.DEFAULT);
+        List<DictEntity> resultList = new ArrayList<>();
+        for (DictSinglePack singlePack : dictPack.getDictPack().values()) {
+            resultList.addAll(singlePack.getDictList());
+        }
+        return resultList;
+    }
+
+    /**
+     * 提供最新快照中的字典缓存容器
+     * 注：快照文件与构建配置均未变化时复用上次载入的容器
+     *
+     * @param config 构建配置
+     * @return 字典缓存容器
+     */
+    @Override
+    public synchronized DictPack provide(DictPackConfig config) {
+        Path latest;
+        try {
+            latest = DictPackSnapshot.latest(Paths.get(gravelSnapshot.getSnapshotDir()));
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[gravel][snapshot]快照目录读取失败，原因 : " + e.getMessage());
+        }
+        if (latest == null) {
+            return loadedPack == null ? new DictPack() : loadedPack;
+        }
+        if (latest.equals(loadedPath) && config == loadedConfig) {
+            return loadedPack;
+        }
+        try {
+            loadedPack = DictPackSnapshot.read(latest, config);
+            loadedPath = latest;
+            loadedConfig = config;
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (loadedPack == null) {
+                throw new RuntimeException("[gravel][snapshot]快照读取失败，原因 : " + e.getMessage());
+            }
+            // 保留上一版本
+        }
+        return loadedPack;
+    }
+
+    /**
+     * 监听快照目录，新快照发布后回调
+     *
+     * @param listener 变更回调
+     */
+    @Override
+    public synchronized void onChange(Runnable listener) {
+        if (!gravelSnapshot.isWatch() || watchThread != null) {
+            return;
+        }
+        Path dir = Paths.get(gravelSnapshot.getSnapshotDir());
+        WatchService watchService;
+        try {
+            Files.createDirectories(dir);
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[gravel][snapshot]快照目录监听失败，原因 : " + e.getMessage());
+        }
+        this.watchService = watchService;
+        watchThread = new Thread(() -> watch(watchService, listener), "MuninSnapshotWatcher-" + dir.getFileName());
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * 停止目录监听（关闭监听服务，监听线程随之退出；之后可重新注册）
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+    }
+
+    /**
+     * 【封装】监听循环（同一批事件只回调一次）
+     */
+    private static void watch(WatchService watchService, Runnable listener) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || DictPackSnapshot.isPublishedName(event.context().toString())) {
+                    changed = true;
+                }
+            }
+            if (changed) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (!key.reset()) {
+                return;
+            }
+        }
+    }
+
+}
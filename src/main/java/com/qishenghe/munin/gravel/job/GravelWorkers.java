@@ -0,0 +1,203 @@
+package com.qishenghe.munin.gravel.job;
+
+import com.qishenghe.munin.cache.pack.DictEntity;
+import com.qishenghe.munin.cache.pack.DictEntitySink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 石子并发读取（分区、分块等任务由线程池中的工作线程与调用线程共同领取，结果按批推送至共享接收端；需保持源顺序时按任务序号推送）
+ *
+ * @author qishenghe
+ * @date 2026/10/20 18:40
+ * @change 2026/10/20 18:40 by qishenghe for init
+ */
+final class GravelWorkers {
+
+    /**
+     * 每批推送的条目数
+     */
+    private static final int PUSH_BATCH_SIZE = 1024;
+
+    private GravelWorkers() {
+    }
+
+    /**
+     * 读取任务
+     */
+    @FunctionalInterface
+    interface Task {
+
+        /**
+         * 执行第index个任务
+         *
+         * @param index 任务序号
+         * @param sink 接收端（当前工作线程独占）
+         * @throws Exception 读取失败
+         */
+        void run(int index, DictEntitySink sink) throws Exception;
+    }
+
+    /**
+     * 执行各任务（线程池为空或只有一个任务时由调用线程依次执行；任一任务失败时不再领取新任务）
+     *
+     * @param taskCount 任务数
+     * @param workers 最大并发数（含调用线程）
+     * @param executor 线程池【null_maybe】
+     * @param sink 接收端（并发执行时需线程安全）
+     * @param task 读取任务
+     */
+    static void run(int taskCount, int workers, ExecutorService executor, DictEntitySink sink, Task task) {
+        run(taskCount, workers, executor, sink, task, false);
+    }
+
+    /**
+     * 执行各任务，按任务序号顺序推送（各任务的结果先缓冲，前序任务推送完毕后再推送；用于分块读取时保持源顺序）
+     *
+     * @param taskCount 任务数
+     * @param workers 最大并发数（含调用线程）
+     * @param executor 线程池【null_maybe】
+     * @param sink 接收端（并发执行时需线程安全）
+     * @param task 读取任务
+     */
+    static void runOrdered(int taskCount, int workers, ExecutorService executor, DictEntitySink sink, Task task) {
+        run(taskCount, workers, executor, sink, task, true);
+    }
+
+    /**
+     * 【封装】执行各任务
+     */
+    private static void run(int taskCount, int workers, ExecutorService executor, DictEntitySink sink, Task task,
+                    boolean ordered) {
+        if (executor == null || taskCount <= 1 || workers <= 1) {
+            for (int i = 0; i < taskCount; i++) {
+                runTask(task, i, sink);
+            }
+            return;
+        }
+        int parallelism = Math.min(workers, taskCount);
+        AtomicInteger next = new AtomicInteger();
+        // 按任务计数（排队未执行的工作线程不影响等待，调用线程领完全部任务后即可返回）
+        CountDownLatch done = new CountDownLatch(taskCount);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        OrderedSink orderedSink = ordered ? new OrderedSink(sink, taskCount) : null;
+        Runnable worker = () -> {
+            BatchSink batchSink = ordered ? null : new BatchSink(sink);
+            int i;
+            while ((i = next.getAndIncrement()) < taskCount) {
+                try {
+                    if (failure.get() == null && ordered) {
+                        List<DictEntity> entities = new ArrayList<>();
+                        runTask(task, i, entities::add);
+                        orderedSink.complete(i, entities);
+                    } else if (failure.get() == null) {
+                        runTask(task, i, batchSink);
+                        batchSink.flush();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        try {
+            for (int started = 1; started < parallelism; started++) {
+                executor.execute(worker);
+            }
+        } catch (RejectedExecutionException e) {
+            // 线程池繁忙，由已启动的工作线程与调用线程完成剩余任务
+        }
+        worker.run();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new RuntimeException("[gravel]并发读取被中断"));
+        }
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e != null) {
+            throw new RuntimeException("[gravel]并发读取失败，原因 : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 【封装】执行单个任务（受检异常包装为运行时异常）
+     */
+    private static void runTask(Task task, int index, DictEntitySink sink) {
+        try {
+            task.run(index, sink);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("[gravel]读取失败，原因 : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按序推送（任务完成时只缓冲结果，从最早未推送的任务起连续推送已完成的部分）
+     */
+    private static final class OrderedSink {
+
+        private final DictEntitySink target;
+
+        private final List<List<DictEntity>> completed;
+
+        private int cursor;
+
+        private OrderedSink(DictEntitySink target, int taskCount) {
+            this.target = target;
+            this.completed = new ArrayList<>(Collections.nCopies(taskCount, null));
+        }
+
+        private synchronized void complete(int index, List<DictEntity> entities) {
+            completed.set(index, entities);
+            while (cursor < completed.size() && completed.get(cursor) != null) {
+                target.acceptAll(completed.get(cursor));
+                completed.set(cursor++, null);
+            }
+        }
+    }
+
+    /**
+     * 批量推送（减少共享接收端的同步开销）
+     */
+    private static final class BatchSink implements DictEntitySink {
+
+        private final DictEntitySink target;
+
+        private final List<DictEntity> buffer = new ArrayList<>(PUSH_BATCH_SIZE);
+
+        private BatchSink(DictEntitySink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void accept(DictEntity dictEntity) {
+            buffer.add(dictEntity);
+            if (buffer.size() >= PUSH_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!buffer.isEmpty()) {
+                target.acceptAll(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+}
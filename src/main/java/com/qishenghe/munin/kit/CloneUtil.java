@@ -1,9 +1,15 @@
 package com.qishenghe.munin.kit;
 
+import com.qishenghe.munin.cache.pack.DictEntity;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 拷贝工具
@@ -15,7 +21,45 @@ import java.io.ObjectOutputStream;
 public class CloneUtil {
 
     /**
-     * 深拷贝
+     * 拷贝字典实体（逐字段复制，不经过序列化）
+     *
+     * @param src 拷贝源
+     * @return 拷贝副本（src为null时返回null）
+     */
+    public static DictEntity copy(DictEntity src) {
+        return src == null ? null : src.clone();
+    }
+
+    /**
+     * 拷贝字典实体列表
+     *
+     * @param src 拷贝源
+     * @return 拷贝副本（可修改）
+     */
+    public static List<DictEntity> copy(List<DictEntity> src) {
+        List<DictEntity> dest = new ArrayList<>(src.size());
+        for (DictEntity single : src) {
+            dest.add(copy(single));
+        }
+        return dest;
+    }
+
+    /**
+     * 拷贝字典实体Map
+     *
+     * @param src 拷贝源
+     * @return 拷贝副本（可修改）
+     */
+    public static Map<String, DictEntity> copy(Map<String, DictEntity> src) {
+        Map<String, DictEntity> dest = new HashMap<>(src.size() << 1);
+        for (Map.Entry<String, DictEntity> entry : src.entrySet()) {
+            dest.put(entry.getKey(), copy(entry.getValue()));
+        }
+        return dest;
+    }
+
+    /**
+     * 深拷贝（基于JDK序列化，性能较差；字典实体请使用copy）
      *
      * @param src 拷贝源
      * @return 拷贝副本
@@ -24,6 +68,7 @@ public class CloneUtil {
      * @date 2021/6/8 9:38
      * @change 2021/6/8 9:38 by qishenghe for init
      */
+    @Deprecated
     public static <T> T deepCopy(T src) {
         /**
          * q1:为什么要使用拷贝
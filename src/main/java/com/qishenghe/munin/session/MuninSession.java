@@ -1,20 +1,46 @@
 package com.qishenghe.munin.session;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.qishenghe.munin.banner.MuninBannerPrinter;
+import com.qishenghe.munin.cache.job.DictPackChangeNotifier;
+import com.qishenghe.munin.cache.job.DictPackDeltaJob;
 import com.qishenghe.munin.cache.job.DictPackInitJob;
-import com.qishenghe.munin.cache.job.autofresh.DictPackAutoFreshJob;
-import com.qishenghe.munin.cache.pack.DictEntity;
+import com.qishenghe.munin.cache.job.DictPackProvider;
+import com.qishenghe.munin.cache.job.DictPackStreamJob;
+import com.qishenghe.munin.cache.job.autofresh.DefaultRefreshScheduler;
+import com.qishenghe.munin.cache.job.autofresh.RefreshScheduler;
 import com.qishenghe.munin.cache.pack.DictPack;
+import com.qishenghe.munin.cache.pack.DictPackBuilder;
+import com.qishenghe.munin.cache.pack.DictPackConfig;
+import com.qishenghe.munin.cache.pack.DictPackSnapshot;
+import com.qishenghe.munin.cache.pack.DictStringPool;
 import com.qishenghe.munin.pool.DefaultMuninThreadPool;
 import com.qishenghe.munin.pool.MuninThreadPool;
 import com.qishenghe.munin.util.DictCtrlUtil;
 import com.qishenghe.munin.util.DictTransUtil;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
-import org.quartz.*;
-import org.quartz.impl.StdSchedulerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 字典控制会话
@@ -27,9 +53,102 @@ import java.util.*;
 public class MuninSession {
 
     /**
-     * 字典缓存总容器
+     * 周期自刷新任务名称
      */
-    private DictPack dictPack;
+    private static final String AUTO_REFRESH_JOB_NAME = "DictPackAutoFresh";
+
+    /**
+     * 会话序号（生成默认会话名称）
+     */
+    private static final AtomicLong SESSION_SEQUENCE = new AtomicLong();
+
+    /**
+     * 默认未就绪等待时间（毫秒）
+     */
+    private static final long DEFAULT_NOT_READY_WAIT_MILLIS = 30000;
+
+    /**
+     * 空容器（未就绪放行时使用）
+     */
+    private static final DictPack EMPTY_DICT_PACK = new DictPack();
+
+    /**
+     * 首次加载失败后的初始重试间隔（毫秒，之后逐次翻倍）
+     */
+    private static final long BOOTSTRAP_RETRY_MIN_MILLIS = 1000;
+
+    /**
+     * 首次加载失败后的最大重试间隔（毫秒）
+     */
+    private static final long BOOTSTRAP_RETRY_MAX_MILLIS = 60000;
+
+    /**
+     * 会话名称（同一JVM内唯一，用于区分各会话的周期任务）
+     */
+    @Setter(AccessLevel.NONE)
+    private String sessionName;
+
+    /**
+     * 字典缓存总容器（刷新时整体切换）
+     */
+    private volatile DictPack dictPack;
+
+    /**
+     * 就绪标记（首次从数据源加载成功后完成，之后不再变化）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final CompletableFuture<Void> readyFuture = new CompletableFuture<>();
+
+    /**
+     * 会话已关闭标记（停止首次加载的重试）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean closed;
+
+    /**
+     * 未就绪查询策略
+     */
+    @Setter(AccessLevel.NONE)
+    private NotReadyPolicy notReadyPolicy = NotReadyPolicy.WAIT;
+
+    /**
+     * 未就绪等待时间（毫秒，不大于0时一直等待）
+     */
+    @Setter(AccessLevel.NONE)
+    private long notReadyWaitMillis = DEFAULT_NOT_READY_WAIT_MILLIS;
+
+    /**
+     * 字符串去重池（跨刷新传递）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private DictStringPool dictStringPool = new DictStringPool();
+
+    /**
+     * 字典缓存容器构建配置
+     */
+    @Setter(AccessLevel.NONE)
+    private DictPackConfig dictPackConfig;
+
+    /**
+     * 快照文件路径（为空时不启用快照）
+     */
+    @Setter(AccessLevel.NONE)
+    private String snapshotPath;
+
+    /**
+     * 快照发布目录（为空时不发布）
+     */
+    @Setter(AccessLevel.NONE)
+    private String snapshotPublishDir;
+
+    /**
+     * 快照发布保留版本数
+     */
+    @Setter(AccessLevel.NONE)
+    private int snapshotPublishRetain;
 
     /**
      * 多源字典加载互斥标记
@@ -42,15 +161,118 @@ public class MuninSession {
     private List<DictPackInitJob> dictPackInitJobs;
 
     /**
-     * 自刷新调度器
+     * 单个数据源加载超时时间（毫秒，不大于0时不限制）
+     */
+    @Setter(AccessLevel.NONE)
+    private long sourceTimeoutMillis;
+
+    /**
+     * 字典编码加载范围（null：加载全部字典；按需加载时会增加）【null_maybe】
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> dictCodeAllowList;
+
+    /**
+     * 加载范围外字典的查询策略
+     */
+    @Setter(AccessLevel.NONE)
+    private UnlistedDictCodePolicy unlistedDictCodePolicy = UnlistedDictCodePolicy.REJECT;
+
+    /**
+     * 按需加载中的字典（字典编码 - 加载结果；加载成功后才加入加载范围，并发查询等待同一结果）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<String, CompletableFuture<Void>> lazyLoads = new ConcurrentHashMap<>();
+
+    /**
+     * 各数据源上次成功加载的容器（按数据源实例区分；数据源失败或超时时沿用）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<DictPackInitJob, DictPack> lastGoodDictPacks = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * 各数据源上次成功加载时的变更探测值（按数据源实例区分）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<DictPackInitJob, String> lastProbes = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * 各增量数据源上次成功加载后的水位（按数据源实例区分）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<DictPackInitJob, Object> lastWatermarks = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * 刷新协调器（同一时刻只有一次刷新，并发请求合并到尚未开始的刷新）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final RefreshCoordinator refreshCoordinator = new RefreshCoordinator();
+
+    /**
+     * 周期刷新随机延迟上限（毫秒，错开多实例同时访问数据源；不大于0时不延迟）
+     */
+    @Setter(AccessLevel.NONE)
+    private long refreshJitterMillis;
+
+    /**
+     * 自刷新调度器（未指定时使用默认刷新调度器）
+     */
+    @Setter(AccessLevel.NONE)
+    private RefreshScheduler refreshScheduler;
+
+    /**
+     * 自刷新调度器是否由会话创建（外部传入的调度器可能被多个会话共用，会话只取消自己的任务，不关闭调度器）
      */
-    private Scheduler dictPackAutoFreshScheduler;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean refreshSchedulerOwned;
 
     /**
-     * 自刷新周期Cron表达式
+     * 数据源加载线程池（会话独占，与执行刷新的线程池分开；会话关闭时一并关闭）【null_maybe】
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ExecutorService sourceLoadExecutor;
+
+    /**
+     * 加载中的数据源（按实例区分；超时后仍未结束的加载不会与同一数据源的下一次加载重叠）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Set<DictPackInitJob> loadingJobs = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    /**
+     * 自刷新周期表达式（Cron表达式或固定间隔，见RefreshTrigger）
      */
     private String autoRefreshCron;
 
+    /**
+     * 数据源 - 单独的自刷新周期表达式（按数据源实例区分；刷新时只重新加载该数据源）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<DictPackInitJob, String> sourceRefreshCrons = new IdentityHashMap<>();
+
+    /**
+     * 自刷新周期表达式 - 字典编码（刷新时各数据源只重新加载这些字典）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<String, Set<String>> dictCodeRefreshCrons = new LinkedHashMap<>();
+
+    /**
+     * 已注册的周期任务名称
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final List<String> scheduledJobNames = new ArrayList<>();
+
     /**
      * 字典控制工具
      */
@@ -86,33 +308,356 @@ public class MuninSession {
      * @since 1.0.0
      */
     private void refreshPack(boolean dictPackMutex, DictPackInitJob... dictPackInitJobs) {
+        refreshPack(dictPackMutex, null, null, dictPackInitJobs);
+    }
+
+    /**
+     * 刷新缓存容器（部分刷新：只重新加载指定的数据源或字典，其余沿用上次成功的结果，合并后整体切换）
+     *
+     * @param dictPackMutex 互斥标记
+     * @param targetJobs 重新加载的数据源（null：全部）【null_maybe】
+     * @param dictCodes 重新加载的字典（null：全部）【null_maybe】
+     * @param dictPackInitJobs 初始化流程（传入顺序表示优先级）
+     */
+    private void refreshPack(boolean dictPackMutex, Set<DictPackInitJob> targetJobs, Set<String> dictCodes,
+                    DictPackInitJob... dictPackInitJobs) {
+
+        // 新一代去重池，复用上一代快照中的字符串实例
+        DictStringPool stringPool = this.dictStringPool.next();
+        // 各字典在CPU线程池中并行构建
+        DictPackBuilder dictPackBuilder = new DictPackBuilder(this.dictPackConfig, stringPool,
+                        this.muninThreadPool == null ? null : this.muninThreadPool.getThreadPoolCpu());
+        // 各数据源并发加载
+        DictPack[] childrenDictPacks = loadChildrenDictPacks(dictPackBuilder, targetJobs, dictCodes, dictPackInitJobs);
+        if (childrenDictPacks == null) {
+            // 各数据源均未变化
+            this.readyFuture.complete(null);
+            return;
+        }
+        // 按优先级合并多源容器（互斥：冲突字典保留优先级高的；非互斥：合并各数据源数据）
+        DictPack dictPack = dictPackMutex ? DictPack.merge(childrenDictPacks) : dictPackBuilder.combine(childrenDictPacks);
+        // 引用切换
+        this.dictPack = dictPack;
+        this.dictStringPool = stringPool;
+        this.readyFuture.complete(null);
+        // 持久化快照
+        writeSnapshot(dictPack);
+    }
+
+    /**
+     * 【封装】各数据源在会话独占的加载线程池中并发加载，各自生成容器
+     * 注：加载线程池与执行刷新的IO线程池分开（在同一线程池中等待排队的任务会造成饥饿死锁），线程数不超过数据源数量；
+     * 超时的数据源中断其加载后直接放弃，不响应中断的读取（如部分JDBC驱动）结束前，该数据源的后续加载直接沿用上次结果，不重复发起
+     * 注：数据源失败或超时时沿用其上次成功的结果（无历史结果时视为空），全部失败时放弃本次刷新
+     * 注：变更探测值未变化的数据源不加载，沿用上次成功的结果；增量数据源只加载水位之后的变更
+     * 注：部分刷新时范围外的数据源直接沿用上次成功的结果（无历史结果时照常加载）
+     *
+     * @param dictPackBuilder 构建器
+     * @param targetJobs 重新加载的数据源（null：全部）【null_maybe】
+     * @param dictCodes 重新加载的字典（null：全部）【null_maybe】
+     * @param dictPackInitJobs 初始化流程（传入顺序表示优先级）
+     * @return 各数据源的容器（与传入顺序一致；各数据源均沿用上次结果时返回null）【null_maybe】
+     */
+    private DictPack[] loadChildrenDictPacks(DictPackBuilder dictPackBuilder, Set<DictPackInitJob> targetJobs,
+                    Set<String> dictCodes, DictPackInitJob... dictPackInitJobs) {
+        List<FutureTask<DictPack>> futures = new ArrayList<>(dictPackInitJobs.length);
+        DictPack[] previousDictPacks = new DictPack[dictPackInitJobs.length];
+        LoadState[] states = new LoadState[dictPackInitJobs.length];
+        for (int i = 0; i < dictPackInitJobs.length; i++) {
+            int index = i;
+            DictPackInitJob singleJob = dictPackInitJobs[i];
+            previousDictPacks[i] = this.lastGoodDictPacks.get(singleJob);
+            states[i] = new LoadState();
+            boolean reuse = targetJobs != null && !targetJobs.contains(singleJob) && previousDictPacks[i] != null;
+            FutureTask<DictPack> future = new FutureTask<>(() -> reuse
+                            ? reuseDictPack(singleJob, previousDictPacks[index], states[index])
+                            : loadDictPack(dictPackBuilder, singleJob, previousDictPacks[index], states[index], dictCodes));
+            if (reuse || this.muninThreadPool == null || (dictPackInitJobs.length == 1 && this.sourceTimeoutMillis <= 0)) {
+                future.run();
+            } else if (!this.loadingJobs.add(singleJob)) {
+                // 上次超时的加载尚未结束，按加载失败处理
+                future = new FutureTask<>(() -> {
+                    throw new RuntimeException("数据源上次加载尚未结束，本次沿用上次结果 : " + index);
+                });
+                future.run();
+            } else {
+                FutureTask<DictPack> loading = future;
+                try {
+                    sourceLoadExecutor(dictPackInitJobs.length).execute(() -> {
+                        try {
+                            loading.run();
+                        } finally {
+                            this.loadingJobs.remove(singleJob);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    this.loadingJobs.remove(singleJob);
+                    loading.run();
+                }
+            }
+            futures.add(future);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.sourceTimeoutMillis);
+        DictPack[] childrenDictPacks = new DictPack[dictPackInitJobs.length];
+        boolean loaded = false;
+        boolean changed = false;
+        for (int i = 0; i < dictPackInitJobs.length; i++) {
+            FutureTask<DictPack> future = futures.get(i);
+            try {
+                childrenDictPacks[i] = this.sourceTimeoutMillis > 0
+                                ? future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                                : future.get();
+                this.lastGoodDictPacks.put(dictPackInitJobs[i], childrenDictPacks[i]);
+                // 记录加载前的探测值（加载期间发生的变更在下次刷新时生效）与加载后的水位
+                putOrRemove(this.lastProbes, dictPackInitJobs[i], states[i].probe);
+                putOrRemove(this.lastWatermarks, dictPackInitJobs[i], states[i].watermark);
+                loaded = true;
+                changed |= childrenDictPacks[i] != previousDictPacks[i];
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (FutureTask<DictPack> single : futures) {
+                    single.cancel(true);
+                }
+                throw new RuntimeException("字典缓存容器刷新被中断");
+            } catch (ExecutionException | TimeoutException e) {
+                future.cancel(true);
+                (e instanceof ExecutionException ? e.getCause() : e).printStackTrace();
+                childrenDictPacks[i] = previousDictPacks[i] == null ? new DictPack() : previousDictPacks[i];
+                changed |= previousDictPacks[i] == null;
+            }
+        }
+        if (!loaded) {
+            throw new RuntimeException("各数据源均加载失败，保留当前缓存容器");
+        }
+        return changed || this.dictPack == null ? childrenDictPacks : null;
+    }
 
-        DictPack dictPack;
-        if (dictPackMutex) {
-            // 各数据源字典间互斥
-            List<DictPack> childrenDictPacks = new LinkedList<>();
-            for (DictPackInitJob singleJob : dictPackInitJobs) {
-                // 生成容器
-                DictPack singleDictPack = DictPack.createDictPackByInitData(singleJob.init());
-                childrenDictPacks.add(singleDictPack);
+    /**
+     * 【封装】加载单个数据源（提供者直接给出构建好的容器，流式数据源边推送边分组）
+     *
+     * @param dictPackBuilder 构建器
+     * @param singleJob 初始化流程
+     * @param lastGood 上次成功加载的容器【null_maybe】
+     * @param state 本次加载的探测值与水位（加载结果被采用后记录）
+     * @param dictCodes 重新加载的字典（null：全部；有上次结果时只重新加载这些字典并替换）【null_maybe】
+     * @return 容器（探测值未变化或没有增量时返回lastGood）
+     */
+    private DictPack loadDictPack(DictPackBuilder dictPackBuilder, DictPackInitJob singleJob, DictPack lastGood,
+                    LoadState state, Set<String> dictCodes) {
+        if (dictCodes != null && lastGood != null) {
+            // 部分字典重新加载（不做变更探测，探测值与水位维持不变，下次全量刷新时照常比较）
+            reuseDictPack(singleJob, lastGood, state);
+            DictPack part;
+            if (singleJob instanceof DictPackProvider) {
+                part = ((DictPackProvider) singleJob).provide(this.dictPackConfig);
+            } else {
+                DictPackBuilder.Accumulator accumulator = dictPackBuilder.accumulator();
+                DictPackStreamJob.adapt(singleJob).stream(accumulator, dictCodes, this.muninThreadPool);
+                part = dictPackBuilder.build(accumulator);
+            }
+            return DictPack.replace(lastGood, part, dictCodes);
+        }
+        // 加载范围（未设置时为null，加载全部字典）
+        Set<String> allowList = allowedDictCodes();
+        // 变更探测（探测失败时视为已变化）
+        String probe;
+        try {
+            probe = singleJob.probe();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            probe = null;
+        }
+        state.probe = probe;
+        if (probe != null && lastGood != null && probe.equals(this.lastProbes.get(singleJob))) {
+            state.watermark = this.lastWatermarks.get(singleJob);
+            return lastGood;
+        }
+        if (singleJob instanceof DictPackDeltaJob) {
+            // 有上次结果与水位时只加载水位之后的变更，应用到上次的结果上
+            Object since = lastGood == null ? null : this.lastWatermarks.get(singleJob);
+            DictPackBuilder.Delta delta = dictPackBuilder.delta();
+            state.watermark = ((DictPackDeltaJob) singleJob).streamDelta(since, delta, allowList, this.muninThreadPool);
+            return retain(since == null ? dictPackBuilder.build(delta) : dictPackBuilder.apply(lastGood, delta), allowList);
+        } else if (singleJob instanceof DictPackProvider) {
+            return retain(((DictPackProvider) singleJob).provide(this.dictPackConfig), allowList);
+        } else if (singleJob instanceof DictPackStreamJob) {
+            DictPackBuilder.Accumulator accumulator = dictPackBuilder.accumulator();
+            if (allowList == null) {
+                ((DictPackStreamJob) singleJob).stream(accumulator, this.muninThreadPool);
+            } else {
+                ((DictPackStreamJob) singleJob).stream(accumulator, allowList, this.muninThreadPool);
             }
-            // 合并多源容器
-            dictPack = DictPack.merge(childrenDictPacks.toArray(new DictPack[0]));
+            return dictPackBuilder.build(accumulator);
+        }
+        return retain(dictPackBuilder.build(singleJob.init()), allowList);
+    }
+
+    /**
+     * 【封装】当前加载范围的副本（含按需加载中的字典；未设置时返回null）
+     */
+    private Set<String> allowedDictCodes() {
+        Set<String> allowList = this.dictCodeAllowList;
+        if (allowList == null) {
+            return null;
+        }
+        Set<String> result = new HashSet<>(allowList);
+        result.addAll(this.lazyLoads.keySet());
+        return result;
+    }
+
+    /**
+     * 【封装】只保留加载范围内的字典（未设置加载范围时原样返回）
+     */
+    private static DictPack retain(DictPack dictPack, Set<String> allowList) {
+        return allowList == null ? dictPack : DictPack.retain(dictPack, allowList);
+    }
+
+    /**
+     * 【封装】沿用上次成功的结果（探测值与水位维持不变）
+     */
+    private DictPack reuseDictPack(DictPackInitJob singleJob, DictPack lastGood, LoadState state) {
+        state.probe = this.lastProbes.get(singleJob);
+        state.watermark = this.lastWatermarks.get(singleJob);
+        return lastGood;
+    }
+
+    /**
+     * 【封装】值为null时移除，否则写入
+     */
+    private static <T> void putOrRemove(Map<DictPackInitJob, T> map, DictPackInitJob key, T value) {
+        if (value == null) {
+            map.remove(key);
         } else {
-            // 合并各数据源字典数据
-            List<DictEntity> initData = new LinkedList<>();
-            for (DictPackInitJob singleJob : dictPackInitJobs) {
-                initData.addAll(singleJob.init());
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * 单个数据源的加载状态
+     */
+    private static final class LoadState {
+
+        /**
+         * 变更探测值【null_maybe】
+         */
+        private volatile String probe;
+
+        /**
+         * 加载后的水位【null_maybe】
+         */
+        private volatile Object watermark;
+    }
+
+    /**
+     * 是否已就绪（首次从数据源加载成功，快照提供服务期间为false；可用于健康检查）
+     *
+     * @return true：已就绪
+     */
+    public boolean isReady() {
+        return this.readyFuture.isDone();
+    }
+
+    /**
+     * 就绪结果（首次从数据源加载成功后完成；首次加载失败时保持未完成，后台按退避间隔重试，直至加载成功或会话关闭）
+     * 注：返回的是派生结果，调用方完成或取消它不影响会话的就绪标记
+     *
+     * @return 就绪结果
+     */
+    public CompletableFuture<Void> getReadyFuture() {
+        return this.readyFuture.thenApply(result -> result);
+    }
+
+    /**
+     * 查询使用的缓存容器（首次加载完成前按未就绪策略处理：等待、放行或以快照提供服务）
+     * 注：已有容器（含快照）时直接返回，不做额外判断
+     *
+     * @return 缓存容器（放行时返回空容器）
+     */
+    public DictPack getServingDictPack() {
+        DictPack current = this.dictPack;
+        if (current != null) {
+            return current;
+        }
+        if (this.notReadyPolicy == NotReadyPolicy.PASS_THROUGH) {
+            return EMPTY_DICT_PACK;
+        }
+        // 等待首次加载（SNAPSHOT策略下快照不可用时同样等待）
+        try {
+            if (this.notReadyWaitMillis > 0) {
+                this.readyFuture.get(this.notReadyWaitMillis, TimeUnit.MILLISECONDS);
+            } else {
+                this.readyFuture.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待字典缓存容器就绪被中断");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("字典缓存容器尚未就绪");
+        }
+        current = this.dictPack;
+        return current == null ? EMPTY_DICT_PACK : current;
+    }
+
+    /**
+     * 从快照文件载入缓存容器（内存映射，直接在文件数据上提供查询）
+     *
+     * @return true：载入成功，false：未配置快照、快照不存在或校验失败
+     */
+    public boolean loadSnapshot() {
+        if (StringUtils.isEmpty(this.snapshotPath)) {
+            return false;
+        }
+        Path path = Paths.get(this.snapshotPath);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try {
+            this.dictPack = DictPackSnapshot.read(path, this.dictPackConfig);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 【封装】将缓存容器写出为快照文件、发布到快照目录（写出失败不影响当前缓存）
+     *
+     * @param dictPack 缓存容器
+     */
+    private void writeSnapshot(DictPack dictPack) {
+        if (!StringUtils.isEmpty(this.snapshotPath)) {
+            try {
+                DictPackSnapshot.write(dictPack, Paths.get(this.snapshotPath));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (!StringUtils.isEmpty(this.snapshotPublishDir)) {
+            try {
+                DictPackSnapshot.publish(dictPack, Paths.get(this.snapshotPublishDir), this.snapshotPublishRetain);
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-            // 生成容器
-            dictPack = DictPack.createDictPackByInitData(initData);
         }
-        // 引用切换
-        this.dictPack = dictPack;
     }
 
     /**
-     * 刷新缓存容器（无参重载）
+     * 【封装】为可感知变更的数据源注册监听（变更后刷新）
+     */
+    private void registerChangeNotifier() {
+        if (this.dictPackInitJobs == null) {
+            return;
+        }
+        for (DictPackInitJob singleJob : this.dictPackInitJobs) {
+            if (singleJob instanceof DictPackChangeNotifier) {
+                ((DictPackChangeNotifier) singleJob).onChange(this::refreshPackAsync);
+            }
+        }
+    }
+
+    /**
+     * 刷新缓存容器（无参重载；已有尚未开始的刷新时合并执行，进行中的刷新结束后再刷新一次）
      *
      * @author qishenghe
      * @date 2021/6/7 11:24
@@ -120,66 +665,308 @@ public class MuninSession {
      * @since 1.0.0
      */
     public void refreshPack() {
+        this.refreshCoordinator.submitAndWait(RefreshCoordinator.SCOPE_ALL, this::refreshAllPack, 0);
+    }
+
+    /**
+     * 刷新单个数据源（其余数据源沿用上次成功的结果，合并后整体切换）
+     *
+     * @param dictPackInitJob 数据源（须为当前会话的初始化流程）
+     */
+    public void refreshSource(DictPackInitJob dictPackInitJob) {
+        refreshSource(dictPackInitJob, 0);
+    }
+
+    /**
+     * 刷新指定字典（各数据源只重新加载这些字典，其余字典沿用上次成功的结果，合并后整体切换）
+     *
+     * @param dictCodes 字典编码
+     */
+    public void refreshDictCodes(Collection<String> dictCodes) {
+        refreshDictCodes(dictCodes, 0);
+    }
+
+    /**
+     * 异步刷新缓存容器（在IO线程池中执行；已有尚未开始的刷新时直接返回其结果，结果一定晚于本次请求）
+     *
+     * @return 刷新结果
+     */
+    public CompletableFuture<Void> refreshPackAsync() {
+        return this.refreshCoordinator.submit(RefreshCoordinator.SCOPE_ALL, this::refreshAllPack,
+                        this.muninThreadPool == null ? null : this.muninThreadPool.getThreadPoolIo(), 0);
+    }
+
+    /**
+     * 周期刷新缓存容器（开始前随机延迟，错开多实例；已有尚未开始的刷新时合并执行）
+     */
+    public void autoRefreshPack() {
+        this.refreshCoordinator.submitAndWait(RefreshCoordinator.SCOPE_ALL, this::refreshAllPack, this.refreshJitterMillis);
+    }
+
+    /**
+     * 进行中的刷新
+     *
+     * @return 进行中的刷新（没有时返回null）【null_maybe】
+     */
+    public CompletableFuture<Void> getRefreshingPack() {
+        return this.refreshCoordinator.current();
+    }
+
+    /**
+     * 【封装】数据源加载线程池（首次使用时创建；线程数不超过数据源数量，空闲时回收）
+     */
+    private synchronized ExecutorService sourceLoadExecutor(int sourceCount) {
+        if (this.sourceLoadExecutor == null) {
+            String nameFormat = "MuninSourceLoader-" + this.sessionName.replace("%", "%%") + "-%d";
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(sourceCount, sourceCount, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+            executor.allowCoreThreadTimeOut(true);
+            this.sourceLoadExecutor = executor;
+        }
+        return this.sourceLoadExecutor;
+    }
+
+    /**
+     * 【封装】后台首次加载（失败时按退避间隔重试，不依赖是否配置了周期自刷新；已就绪或会话关闭后停止）
+     *
+     * @param retryMillis 本次失败后的重试间隔（毫秒）
+     */
+    private void bootstrapAsync(long retryMillis) {
+        refreshPackAsync().whenComplete((result, e) -> {
+            if (e == null || this.readyFuture.isDone() || this.closed) {
+                return;
+            }
+            e.printStackTrace();
+            long nextRetryMillis = Math.min(retryMillis << 1, BOOTSTRAP_RETRY_MAX_MILLIS);
+            RefreshCoordinator.delay(() -> {
+                if (!this.readyFuture.isDone() && !this.closed) {
+                    bootstrapAsync(nextRetryMillis);
+                }
+            }, retryMillis);
+        });
+    }
+
+    /**
+     * 【封装】按全部初始化流程刷新缓存容器（仅由刷新协调器调用）
+     */
+    private void refreshAllPack() {
         if (this.dictPackInitJobs != null && this.dictPackInitJobs.size() != 0) {
             refreshPack(this.dictPackMutex, this.dictPackInitJobs.toArray(new DictPackInitJob[0]));
+        } else {
+            this.readyFuture.complete(null);
         }
     }
 
     /**
-     * 启动周期自刷新调度器
+     * 【封装】刷新单个数据源
+     */
+    private void refreshSource(DictPackInitJob dictPackInitJob, long jitterMillis) {
+        int index = sourceIndex(dictPackInitJob);
+        Set<DictPackInitJob> targetJobs = Collections.newSetFromMap(new IdentityHashMap<>());
+        targetJobs.add(dictPackInitJob);
+        this.refreshCoordinator.submitAndWait("source-" + index, () -> refreshPack(this.dictPackMutex, targetJobs, null,
+                        this.dictPackInitJobs.toArray(new DictPackInitJob[0])), jitterMillis);
+    }
+
+    /**
+     * 【封装】刷新指定字典
      */
-    public void startDictPackAutoFresh() throws SchedulerException {
-        if (this.dictPackAutoFreshScheduler == null) {
-            dictPackAutoFreshScheduler = new StdSchedulerFactory().getScheduler();
+    private void refreshDictCodes(Collection<String> dictCodes, long jitterMillis) {
+        Set<String> scope = new TreeSet<>(dictCodes);
+        if (this.dictCodeAllowList != null) {
+            scope.retainAll(this.dictCodeAllowList);
         }
-        // 调度器处于停止状态，可以正常配置并启动调度器
-        // 清空当前任务
-        dictPackAutoFreshScheduler.clear();
-        // 配置Job和Trigger
-        // 传入当前session
-        String jobName = "DictPackAutoFresh";
-        JobDataMap jobDataMap = new JobDataMap();
-        jobDataMap.put("session", this);
+        if (scope.isEmpty() || this.dictPackInitJobs == null || this.dictPackInitJobs.size() == 0) {
+            return;
+        }
+        this.refreshCoordinator.submitAndWait("dict-" + scope, () -> refreshPack(this.dictPackMutex, null, scope,
+                        this.dictPackInitJobs.toArray(new DictPackInitJob[0])), jitterMillis);
+    }
 
-        JobDetail jobDetail = JobBuilder.newJob(DictPackAutoFreshJob.class).setJobData(jobDataMap)
-                        .withIdentity(jobName).build();
-        Trigger jobTrigger = TriggerBuilder.newTrigger().withIdentity(jobName)
-                        .withSchedule(CronScheduleBuilder.cronSchedule(this.autoRefreshCron)).forJob(jobDetail).build();
+    /**
+     * 校验字典是否在加载范围内（范围外的字典按策略拒绝，或按需加载该字典，加载成功后加入加载范围）
+     * 注：同一字典的并发查询共用一次加载；是否等待加载完成按未就绪查询策略处理（放行时不等待，按字典不存在处理）
+     *
+     * @param dictCode 字典编码
+     */
+    public void requireDictCode(String dictCode) {
+        Set<String> allowList = this.dictCodeAllowList;
+        if (allowList == null || allowList.contains(dictCode)) {
+            return;
+        }
+        if (this.unlistedDictCodePolicy != UnlistedDictCodePolicy.LAZY_LOAD) {
+            throw new RuntimeException("字典编码不在加载范围内 : " + dictCode);
+        }
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> loading = this.lazyLoads.putIfAbsent(dictCode, created);
+        if (loading == null) {
+            loading = created;
+            lazyLoad(dictCode, created);
+        }
+        if (this.notReadyPolicy == NotReadyPolicy.PASS_THROUGH) {
+            return;
+        }
+        try {
+            if (this.notReadyWaitMillis > 0) {
+                loading.get(this.notReadyWaitMillis, TimeUnit.MILLISECONDS);
+            } else {
+                loading.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待字典加载被中断 : " + dictCode);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("字典加载失败 : " + dictCode, e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("字典尚未加载完成 : " + dictCode);
+        }
+    }
 
-        // 载入job
-        dictPackAutoFreshScheduler.scheduleJob(jobDetail, jobTrigger);
-        // 启动
-        dictPackAutoFreshScheduler.start();
-        /*
-         * if (!dictPackAutoFreshScheduler.isShutdown()) { // 调度器未停止 throw new
-         * SchedulerException("调度器处于运行状态，无法重复启动"); } else { }
-         */
+    /**
+     * 【封装】在IO线程池中按需加载单个字典（始终单独做部分加载，不合并到全量刷新：全量刷新在数据源未变化或增量加载时不会读取新字典；
+     * 成功后先加入加载范围再完成结果）
+     */
+    private void lazyLoad(String dictCode, CompletableFuture<Void> created) {
+        CompletableFuture<Void> refreshing;
+        if (this.dictPackInitJobs == null || this.dictPackInitJobs.size() == 0) {
+            refreshing = CompletableFuture.completedFuture(null);
+        } else {
+            Set<String> scope = new TreeSet<>(Collections.singleton(dictCode));
+            refreshing = this.refreshCoordinator.submit("dict-" + scope, () -> refreshPack(this.dictPackMutex, null, scope,
+                            this.dictPackInitJobs.toArray(new DictPackInitJob[0])),
+                            this.muninThreadPool == null ? null : this.muninThreadPool.getThreadPoolIo(), 0, false);
+        }
+        refreshing.whenComplete((result, e) -> {
+            if (e == null) {
+                this.dictCodeAllowList.add(dictCode);
+            }
+            this.lazyLoads.remove(dictCode, created);
+            if (e == null) {
+                created.complete(null);
+            } else {
+                created.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+            }
+        });
     }
 
     /**
-     * 关闭周期自刷新调度器
+     * 【封装】数据源在初始化流程中的位置（按实例区分）
+     */
+    private int sourceIndex(DictPackInitJob dictPackInitJob) {
+        for (int i = 0; this.dictPackInitJobs != null && i < this.dictPackInitJobs.size(); i++) {
+            if (this.dictPackInitJobs.get(i) == dictPackInitJob) {
+                return i;
+            }
+        }
+        throw new RuntimeException("数据源不属于当前会话");
+    }
+
+    /**
+     * 启动周期自刷新（调度器未指定或已关闭时创建默认刷新调度器，任务在各会话共用的有界工作线程池中执行；重复启动时替换原任务）
+     * 注：全量、单个数据源、单组字典的周期各自独立调度，同一时刻只执行其中一个
+     */
+    public synchronized void startDictPackAutoFresh() {
+        if (this.refreshScheduler == null || this.refreshScheduler.isShutdown()) {
+            this.refreshScheduler = new DefaultRefreshScheduler();
+            this.refreshSchedulerOwned = true;
+        }
+        cancelScheduledJobs();
+        if (!StringUtils.isEmpty(this.autoRefreshCron)) {
+            scheduleJob(autoRefreshJobName(), this.autoRefreshCron, this::autoRefreshPack);
+        }
+        for (Map.Entry<DictPackInitJob, String> entry : this.sourceRefreshCrons.entrySet()) {
+            DictPackInitJob singleJob = entry.getKey();
+            scheduleJob(autoRefreshJobName() + ".source-" + sourceIndex(singleJob), entry.getValue(),
+                            () -> refreshSource(singleJob, this.refreshJitterMillis));
+        }
+        int group = 0;
+        for (Map.Entry<String, Set<String>> entry : this.dictCodeRefreshCrons.entrySet()) {
+            Set<String> dictCodes = entry.getValue();
+            scheduleJob(autoRefreshJobName() + ".dict-" + group++, entry.getKey(),
+                            () -> refreshDictCodes(dictCodes, this.refreshJitterMillis));
+        }
+    }
+
+    /**
+     * 【封装】注册周期任务并记录名称
+     */
+    private void scheduleJob(String name, String expression, Runnable task) {
+        this.refreshScheduler.schedule(name, expression, task);
+        this.scheduledJobNames.add(name);
+    }
+
+    /**
+     * 【封装】取消本会话注册的周期任务
+     */
+    private void cancelScheduledJobs() {
+        for (String name : this.scheduledJobNames) {
+            this.refreshScheduler.cancel(name);
+        }
+        this.scheduledJobNames.clear();
+    }
+
+    /**
+     * 关闭周期自刷新调度器（外部传入的调度器只取消本会话的任务）
      * 
      * @param now 强制关闭标识（true：立即关闭，false：发送关闭信号）
      */
-    public void shutdownDictPackAutoFresh(boolean now) throws SchedulerException {
-        if (this.dictPackAutoFreshScheduler != null) {
-            dictPackAutoFreshScheduler.shutdown(now);
+    public synchronized void shutdownDictPackAutoFresh(boolean now) {
+        if (this.refreshScheduler == null) {
+            return;
+        }
+        if (this.refreshSchedulerOwned) {
+            this.refreshScheduler.shutdown(now);
+            this.scheduledJobNames.clear();
+        } else if (!this.refreshScheduler.isShutdown()) {
+            cancelScheduledJobs();
         }
     }
 
     /**
-     * 重启周期自刷新调度器
+     * 关闭会话（停止周期自刷新与数据源变更监听；关闭后缓存容器仍可查询，不再更新）
+     *
+     * @param now 强制关闭标识（true：立即关闭，false：发送关闭信号）
      */
-    public void restartDictPackAutoFresh(boolean now) throws SchedulerException {
+    public synchronized void shutdown(boolean now) {
+        this.closed = true;
         shutdownDictPackAutoFresh(now);
-        while (true) {
-            if (this.dictPackAutoFreshScheduler == null || this.dictPackAutoFreshScheduler.isShutdown()) {
-                startDictPackAutoFresh();
-                break;
+        if (this.sourceLoadExecutor != null) {
+            if (now) {
+                this.sourceLoadExecutor.shutdownNow();
+            } else {
+                this.sourceLoadExecutor.shutdown();
+            }
+            this.sourceLoadExecutor = null;
+        }
+        if (this.dictPackInitJobs == null) {
+            return;
+        }
+        for (DictPackInitJob singleJob : this.dictPackInitJobs) {
+            if (singleJob instanceof DictPackChangeNotifier) {
+                try {
+                    ((DictPackChangeNotifier) singleJob).close();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
             }
         }
     }
 
+    /**
+     * 【封装】本会话的周期自刷新任务名称
+     */
+    private String autoRefreshJobName() {
+        return this.sessionName + "." + AUTO_REFRESH_JOB_NAME;
+    }
+
+    /**
+     * 重启周期自刷新调度器
+     */
+    public synchronized void restartDictPackAutoFresh(boolean now) {
+        shutdownDictPackAutoFresh(now);
+        startDictPackAutoFresh();
+    }
+
     /**
      * 字典控制会话（Builder）
      *
@@ -189,6 +976,26 @@ public class MuninSession {
      */
     public static class Builder {
 
+        /**
+         * 字典缓存容器构建配置
+         */
+        private DictPackConfig dictPackConfig;
+
+        /**
+         * 快照文件路径
+         */
+        private String snapshotPath;
+
+        /**
+         * 快照发布目录
+         */
+        private String snapshotPublishDir;
+
+        /**
+         * 快照发布保留版本数
+         */
+        private int snapshotPublishRetain = 3;
+
         /**
          * 多源字典加载互斥标记
          */
@@ -199,11 +1006,66 @@ public class MuninSession {
          */
         private List<DictPackInitJob> dictPackInitJobs;
 
+        /**
+         * 单个数据源加载超时时间（毫秒）
+         */
+        private long sourceTimeoutMillis;
+
         /**
          * 自刷新周期Cron表达式
          */
         private String autoRefreshCron;
 
+        /**
+         * 周期刷新随机延迟上限（毫秒）
+         */
+        private long refreshJitterMillis;
+
+        /**
+         * 自刷新调度器
+         */
+        private RefreshScheduler refreshScheduler;
+
+        /**
+         * 数据源 - 单独的自刷新周期表达式
+         */
+        private Map<DictPackInitJob, String> sourceRefreshCrons = new IdentityHashMap<>();
+
+        /**
+         * 自刷新周期表达式 - 字典编码
+         */
+        private Map<String, Set<String>> dictCodeRefreshCrons = new LinkedHashMap<>();
+
+        /**
+         * 会话名称
+         */
+        private String sessionName;
+
+        /**
+         * 字典编码加载范围
+         */
+        private Set<String> dictCodeAllowList;
+
+        /**
+         * 加载范围外字典的查询策略
+         */
+        private UnlistedDictCodePolicy unlistedDictCodePolicy = UnlistedDictCodePolicy.REJECT;
+
+        /**
+         * 异步启动标记
+         */
+        private boolean asyncBootstrap;
+
+        /**
+         * 未就绪查询策略
+         */
+        private NotReadyPolicy notReadyPolicy = NotReadyPolicy.WAIT;
+
+        /**
+         * 未就绪等待时间（毫秒）
+         */
+        private long notReadyWaitMillis = DEFAULT_NOT_READY_WAIT_MILLIS;
+
         /**
          * 字典控制工具实例配置
          */
@@ -219,6 +1081,50 @@ public class MuninSession {
          */
         private MuninThreadPool muninThreadPool;
 
+        /**
+         * 【set】设置字典缓存容器构建配置
+         *
+         * @param dictPackConfig 字典缓存容器构建配置
+         * @return builder
+         */
+        public synchronized Builder setDictPackConfig(DictPackConfig dictPackConfig) {
+            this.dictPackConfig = dictPackConfig;
+            return this;
+        }
+
+        /**
+         * 【set】设置快照文件路径（每次刷新后写出快照；启动时快照可用则先以快照提供服务，数据源加载转入后台）
+         *
+         * @param snapshotPath 快照文件路径
+         * @return builder
+         */
+        public synchronized Builder setSnapshotPath(String snapshotPath) {
+            this.snapshotPath = snapshotPath;
+            return this;
+        }
+
+        /**
+         * 【set】设置快照发布目录（由一个进程从数据源加载并发布，其余进程通过GravelSnapshot读取，数据库压力不随进程数增长）
+         *
+         * @param snapshotPublishDir 快照发布目录
+         * @return builder
+         */
+        public synchronized Builder setSnapshotPublishDir(String snapshotPublishDir) {
+            this.snapshotPublishDir = snapshotPublishDir;
+            return this;
+        }
+
+        /**
+         * 【set】设置快照发布保留版本数
+         *
+         * @param snapshotPublishRetain 保留版本数（默认3）
+         * @return builder
+         */
+        public synchronized Builder setSnapshotPublishRetain(int snapshotPublishRetain) {
+            this.snapshotPublishRetain = snapshotPublishRetain;
+            return this;
+        }
+
         /**
          * 【set】设置多源字典加载互斥标记
          *
@@ -241,10 +1147,147 @@ public class MuninSession {
             return this;
         }
 
+        /**
+         * 【set】设置单个数据源加载超时时间（各数据源并发加载，超时或失败的数据源沿用上次成功的结果）
+         *
+         * @param sourceTimeoutMillis 超时时间（毫秒，不大于0时不限制，默认不限制）
+         * @return builder
+         */
+        public synchronized Builder setSourceTimeoutMillis(long sourceTimeoutMillis) {
+            this.sourceTimeoutMillis = sourceTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 【set】设置周期刷新随机延迟上限（多实例使用相同周期时错开对数据源的访问）
+         *
+         * @param refreshJitterMillis 延迟上限（毫秒，不大于0时不延迟，默认不延迟）
+         * @return builder
+         */
+        public synchronized Builder setRefreshJitterMillis(long refreshJitterMillis) {
+            this.refreshJitterMillis = refreshJitterMillis;
+            return this;
+        }
+
+        /**
+         * 【set】设置会话名称（同一JVM内多个会话时用于区分各会话的周期任务，默认自动生成）
+         *
+         * @param sessionName 会话名称
+         * @return builder
+         */
+        public synchronized Builder setSessionName(String sessionName) {
+            this.sessionName = sessionName;
+            return this;
+        }
+
+        /**
+         * 【set】设置字典编码加载范围（只加载这些字典；JDBC数据源以IN条件下推，其余数据源读取时过滤；可多次调用累加）
+         *
+         * @param dictCodes 字典编码
+         * @return builder
+         */
+        public synchronized Builder setDictCodeAllowList(String... dictCodes) {
+            if (this.dictCodeAllowList == null) {
+                this.dictCodeAllowList = new TreeSet<>();
+            }
+            this.dictCodeAllowList.addAll(Arrays.asList(dictCodes));
+            return this;
+        }
+
+        /**
+         * 【set】按类中的字典指向注解设置字典编码加载范围（收集属性与方法参数上的MuninPoint，与setDictCodeAllowList累加）
+         *
+         * @param classes 使用字典指向注解的类
+         * @return builder
+         */
+        public synchronized Builder scanMuninPoints(Class<?>... classes) {
+            return setDictCodeAllowList(DictTransUtil.scanDictCodes(classes).toArray(new String[0]));
+        }
+
+        /**
+         * 【set】设置加载范围外字典的查询策略
+         *
+         * @param unlistedDictCodePolicy 查询策略（默认REJECT）
+         * @return builder
+         */
+        public synchronized Builder setUnlistedDictCodePolicy(UnlistedDictCodePolicy unlistedDictCodePolicy) {
+            this.unlistedDictCodePolicy = unlistedDictCodePolicy;
+            return this;
+        }
+
+        /**
+         * 【set】设置异步启动（getOrCreate立即返回，各数据源在后台并发加载，失败时按退避间隔重试；就绪情况见isReady、getReadyFuture）
+         *
+         * @param asyncBootstrap 异步启动标记（默认false：同步加载完成后返回）
+         * @return builder
+         */
+        public synchronized Builder setAsyncBootstrap(boolean asyncBootstrap) {
+            this.asyncBootstrap = asyncBootstrap;
+            return this;
+        }
+
+        /**
+         * 【set】设置未就绪查询策略（首次加载完成前的查询：等待、放行或以快照提供服务）
+         *
+         * @param notReadyPolicy 未就绪查询策略（默认WAIT；SNAPSHOT须同时设置快照文件路径）
+         * @return builder
+         */
+        public synchronized Builder setNotReadyPolicy(NotReadyPolicy notReadyPolicy) {
+            this.notReadyPolicy = notReadyPolicy;
+            return this;
+        }
+
+        /**
+         * 【set】设置未就绪等待时间（WAIT策略下超过该时间仍未就绪时查询抛出异常）
+         *
+         * @param notReadyWaitMillis 等待时间（毫秒，不大于0时一直等待，默认30秒）
+         * @return builder
+         */
+        public synchronized Builder setNotReadyWaitMillis(long notReadyWaitMillis) {
+            this.notReadyWaitMillis = notReadyWaitMillis;
+            return this;
+        }
+
+        /**
+         * 【set】设置单个数据源的自刷新周期（到期时只重新加载该数据源，其余数据源沿用上次的结果）
+         *
+         * @param dictPackInitJob 数据源（须为setDictPackInitJob中传入的实例）
+         * @param refreshCron 自刷新周期表达式（Cron表达式，或固定间隔如 @every 5m）
+         * @return builder
+         */
+        public synchronized Builder setSourceRefreshCron(DictPackInitJob dictPackInitJob, String refreshCron) {
+            this.sourceRefreshCrons.put(dictPackInitJob, refreshCron);
+            return this;
+        }
+
+        /**
+         * 【set】设置一组字典的自刷新周期（到期时各数据源只重新加载这些字典；相同周期的字典合并为一组）
+         *
+         * @param refreshCron 自刷新周期表达式（Cron表达式，或固定间隔如 @every 5m）
+         * @param dictCodes 字典编码
+         * @return builder
+         */
+        public synchronized Builder setDictCodeRefreshCron(String refreshCron, String... dictCodes) {
+            this.dictCodeRefreshCrons.computeIfAbsent(refreshCron, key -> new TreeSet<>()).addAll(Arrays.asList(dictCodes));
+            return this;
+        }
+
+        /**
+         * 【set】设置自刷新调度器（默认使用内置调度器，各会话共用一个计时线程；需使用Quartz时传入QuartzRefreshScheduler；
+         * 同一调度器可传给多个会话，会话关闭自刷新时只取消自己的任务）
+         *
+         * @param refreshScheduler 自刷新调度器
+         * @return builder
+         */
+        public synchronized Builder setRefreshScheduler(RefreshScheduler refreshScheduler) {
+            this.refreshScheduler = refreshScheduler;
+            return this;
+        }
+
         /**
          * 【set】设置自刷新周期表达式
          *
-         * @param autoRefreshCron 自刷新周期表达式
+         * @param autoRefreshCron 自刷新周期表达式（Cron表达式，或固定间隔如 @every 5m）
          * @return builder
          */
         public synchronized Builder setAutoRefreshCron(String autoRefreshCron) {
@@ -380,45 +1423,88 @@ public class MuninSession {
         }
 
         /**
-         * 生成Session
+         * 生成Session（异步启动时不等待数据源加载，立即返回）
          *
          * @return dictSession
          */
         public synchronized MuninSession getOrCreate() {
+            NotReadyPolicy policy = this.notReadyPolicy == null ? NotReadyPolicy.WAIT : this.notReadyPolicy;
+            if (policy == NotReadyPolicy.SNAPSHOT && StringUtils.isEmpty(this.snapshotPath)) {
+                throw new RuntimeException("未就绪策略为SNAPSHOT时须设置快照文件路径");
+            }
 
             // 打印Banner
             MuninBannerPrinter.printBanner();
 
             MuninSession muninSession = new MuninSession();
+            // 会话名称
+            muninSession.sessionName = StringUtils.isEmpty(this.sessionName)
+                            ? "MuninSession-" + SESSION_SEQUENCE.incrementAndGet() : this.sessionName;
 
             // 设置
+            // 构建配置
+            muninSession.dictPackConfig = this.dictPackConfig == null ? DictPackConfig.DEFAULT : this.dictPackConfig;
             // 多源字典互斥标记
             muninSession.setDictPackMutex(
                             this.getDictPackMutex() == null ? getDefaultDictPackMutex() : this.getDictPackMutex());
             // 初始化流程
             muninSession.setDictPackInitJobs(this.getDictPackInitJobs() == null ? getDefaultDictPackInitJob()
                             : this.getDictPackInitJobs());
+            // 数据源加载超时
+            muninSession.sourceTimeoutMillis = this.sourceTimeoutMillis;
+            // 字典编码加载范围
+            if (this.dictCodeAllowList != null) {
+                Set<String> dictCodeAllowList = ConcurrentHashMap.newKeySet();
+                dictCodeAllowList.addAll(this.dictCodeAllowList);
+                muninSession.dictCodeAllowList = dictCodeAllowList;
+            }
+            muninSession.unlistedDictCodePolicy = this.unlistedDictCodePolicy == null
+                            ? UnlistedDictCodePolicy.REJECT : this.unlistedDictCodePolicy;
             // 自刷新周期
             muninSession.setAutoRefreshCron(this.getAutoRefreshCron() == null ? getDefaultAutoRefreshCron()
                             : this.getAutoRefreshCron());
+            muninSession.refreshJitterMillis = this.refreshJitterMillis;
             // 字典控制工具
             muninSession.setDictCtrlUtil(createDictCtrlUtil(muninSession, this.dictCtrlUtilConfig));
             // 字典数据转换工具
             muninSession.setDictTransUtil(createDictTransUtil(muninSession, this.dictTransUtilConfig));
 
-            // 按流程预设加载字典数据进字典缓存容器
-            muninSession.refreshPack();
+            // 快照文件
+            muninSession.snapshotPath = this.snapshotPath;
+            // 快照发布
+            muninSession.snapshotPublishDir = this.snapshotPublishDir;
+            muninSession.snapshotPublishRetain = this.snapshotPublishRetain;
+            // 未就绪查询策略
+            muninSession.notReadyPolicy = policy;
+            muninSession.notReadyWaitMillis = this.notReadyWaitMillis;
 
             // 设置线程池
             muninSession.setMuninThreadPool(this.muninThreadPool == null ? new DefaultMuninThreadPool() : this.muninThreadPool);
 
-            // 启动自刷新流程
-            if (!StringUtils.isEmpty(this.autoRefreshCron)) {
-                try {
-                    muninSession.restartDictPackAutoFresh(true);
-                } catch (SchedulerException e) {
-                    e.printStackTrace();
+            // 按流程预设加载字典数据进字典缓存容器（快照可用时先以快照提供服务，后台刷新）
+            if (this.asyncBootstrap) {
+                // 异步启动：只有SNAPSHOT策略先载入快照，其余策略下首次加载完成前按策略处理查询
+                if (policy == NotReadyPolicy.SNAPSHOT) {
+                    muninSession.loadSnapshot();
                 }
+                muninSession.bootstrapAsync(BOOTSTRAP_RETRY_MIN_MILLIS);
+            } else if (muninSession.loadSnapshot()) {
+                muninSession.bootstrapAsync(BOOTSTRAP_RETRY_MIN_MILLIS);
+            } else {
+                muninSession.refreshPack();
+            }
+            // 数据源变更监听
+            muninSession.registerChangeNotifier();
+
+            // 启动自刷新流程
+            muninSession.refreshScheduler = this.refreshScheduler;
+            muninSession.sourceRefreshCrons = new IdentityHashMap<>(this.sourceRefreshCrons);
+            Map<String, Set<String>> dictCodeRefreshCrons = new LinkedHashMap<>();
+            this.dictCodeRefreshCrons.forEach((key, value) -> dictCodeRefreshCrons.put(key, new TreeSet<>(value)));
+            muninSession.dictCodeRefreshCrons = dictCodeRefreshCrons;
+            if (!StringUtils.isEmpty(this.autoRefreshCron) || !this.sourceRefreshCrons.isEmpty()
+                            || !this.dictCodeRefreshCrons.isEmpty()) {
+                muninSession.startDictPackAutoFresh();
             }
 
             return muninSession;
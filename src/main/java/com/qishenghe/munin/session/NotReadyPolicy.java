@@ -0,0 +1,27 @@
+package com.qishenghe.munin.session;
+
+/**
+ * 未就绪查询策略（异步启动时首次加载完成前的查询如何处理）
+ *
+ * @author qishenghe
+ * @date 2026/10/20 21:40
+ * @change 2026/10/20 21:40 by qishenghe for init
+ */
+public enum NotReadyPolicy {
+
+    /**
+     * 等待首次加载完成（超过等待时间抛出异常）
+     */
+    WAIT,
+
+    /**
+     * 直接放行（按字典不存在处理）
+     */
+    PASS_THROUGH,
+
+    /**
+     * 以快照文件提供服务（快照不可用时按WAIT处理）
+     */
+    SNAPSHOT
+
+}
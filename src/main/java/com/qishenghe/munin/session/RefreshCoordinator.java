@@ -0,0 +1,209 @@
+package com.qishenghe.munin.session;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 刷新协调器（单会话同一时刻只有一次刷新）
+ * 注：刷新按范围区分（全量、单个数据源、单组字典），同一范围或全量刷新尚未开始时发起的请求直接合并，共用同一个结果；
+ * 已开始执行后发起的请求另起一次刷新，排在其后执行，拿到的结果一定晚于请求；不同范围的刷新依次执行
+ * 注：开始前的随机等待交由共享延迟线程计时，不占用执行刷新的线程
+ *
+ * @author qishenghe
+ * @date 2026/10/20 20:40
+ * @change 2026/10/20 20:40 by qishenghe for init
+ */
+final class RefreshCoordinator {
+
+    /**
+     * 全量刷新范围
+     */
+    static final String SCOPE_ALL = "*";
+
+    /**
+     * 共享延迟线程（只负责随机等待结束后的派发）
+     */
+    private static final ScheduledThreadPoolExecutor DELAY = createDelay();
+
+    /**
+     * 执行锁（同一时刻只有一次刷新）
+     */
+    private final Object runLock = new Object();
+
+    /**
+     * 刷新范围 - 尚未开始的刷新（开始执行时移除，之后的请求另起一次）
+     */
+    private final Map<String, CompletableFuture<Void>> pending = new HashMap<>();
+
+    /**
+     * 进行中及等待执行的全部刷新
+     */
+    private final Set<CompletableFuture<Void>> active = new LinkedHashSet<>();
+
+    /**
+     * 发起刷新（全量刷新或同一范围的刷新尚未开始时直接返回其结果）
+     *
+     * @param scope 刷新范围
+     * @param refresh 刷新动作
+     * @param executor 执行刷新的线程池（null：当前线程执行，有随机等待时由新的守护线程执行；拒绝时由当前线程执行）【null_maybe】
+     * @param jitterMillis 开始前随机等待的时间上限（毫秒，不大于0时不等待；用于错开多实例的周期刷新）
+     * @return 刷新结果
+     */
+    CompletableFuture<Void> submit(String scope, Runnable refresh, Executor executor, long jitterMillis) {
+        return submit(scope, refresh, executor, jitterMillis, true);
+    }
+
+    /**
+     * 发起刷新（同一范围的刷新尚未开始时直接返回其结果）
+     *
+     * @param scope 刷新范围
+     * @param refresh 刷新动作
+     * @param executor 执行刷新的线程池（null：当前线程执行，有随机等待时由新的守护线程执行；拒绝时由当前线程执行）【null_maybe】
+     * @param jitterMillis 开始前随机等待的时间上限（毫秒，不大于0时不等待）
+     * @param mergeAll 是否合并到尚未开始的全量刷新（全量刷新可能因变更探测、增量水位跳过该范围时应为false）
+     * @return 刷新结果
+     */
+    CompletableFuture<Void> submit(String scope, Runnable refresh, Executor executor, long jitterMillis,
+                    boolean mergeAll) {
+        CompletableFuture<Void> future;
+        synchronized (this) {
+            future = mergeAll ? pending.get(SCOPE_ALL) : null;
+            if (future == null) {
+                future = pending.get(scope);
+            }
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(scope, future);
+            active.add(future);
+        }
+        CompletableFuture<Void> result = future;
+        Runnable task = () -> run(scope, refresh, result);
+        if (jitterMillis > 0) {
+            Executor target = executor == null ? RefreshCoordinator::startDaemon : executor;
+            try {
+                DELAY.schedule(() -> dispatch(task, target),
+                                ThreadLocalRandom.current().nextLong(jitterMillis + 1), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                dispatch(task, target);
+            }
+        } else {
+            dispatch(task, executor);
+        }
+        return future;
+    }
+
+    /**
+     * 延迟执行（在共享延迟线程中触发，任务应只做派发并立即返回）
+     *
+     * @param task 任务
+     * @param delayMillis 延迟时间（毫秒）
+     */
+    static void delay(Runnable task, long delayMillis) {
+        DELAY.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 发起刷新并等待完成（刷新失败时抛出原异常）
+     *
+     * @param scope 刷新范围
+     * @param refresh 刷新动作
+     * @param jitterMillis 开始前随机等待的时间上限（毫秒）
+     */
+    void submitAndWait(String scope, Runnable refresh, long jitterMillis) {
+        try {
+            submit(scope, refresh, null, jitterMillis).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("字典缓存容器刷新失败", e.getCause());
+        }
+    }
+
+    /**
+     * 进行中的刷新
+     *
+     * @return 进行中及等待执行的全部刷新（没有时返回null）【null_maybe】
+     */
+    synchronized CompletableFuture<Void> current() {
+        if (active.isEmpty()) {
+            return null;
+        }
+        if (active.size() == 1) {
+            return active.iterator().next();
+        }
+        return CompletableFuture.allOf(active.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * 【封装】执行刷新（取得执行锁后才移出等待队列，此前的请求都合并到本次；先释放进行中标记再完成结果，结果回调中发起的刷新不会合并到已结束的刷新）
+     */
+    private void run(String scope, Runnable refresh, CompletableFuture<Void> future) {
+        Throwable failure = null;
+        try {
+            synchronized (runLock) {
+                synchronized (this) {
+                    pending.remove(scope, future);
+                }
+                refresh.run();
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            synchronized (this) {
+                active.remove(future);
+            }
+        }
+        if (failure == null) {
+            future.complete(null);
+        } else {
+            future.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * 【封装】派发刷新（未指定线程池或被拒绝时由当前线程执行）
+     */
+    private static void dispatch(Runnable task, Executor executor) {
+        if (executor == null) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * 【封装】在新的守护线程中执行（未指定线程池的延迟刷新，不占用共享延迟线程）
+     */
+    private static void startDaemon(Runnable task) {
+        Thread thread = new Thread(task, "MuninDelayedRefresh");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 【封装】创建共享延迟线程
+     */
+    private static ScheduledThreadPoolExecutor createDelay() {
+        return new ScheduledThreadPoolExecutor(1,
+                        new ThreadFactoryBuilder().setNameFormat("MuninRefreshDelay-%d").setDaemon(true).build());
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.qishenghe.munin.session;
+
+/**
+ * 加载范围外字典的查询策略（设置了字典编码加载范围时生效）
+ *
+ * @author qishenghe
+ * @date 2026/10/20 22:10
+ * @change 2026/10/20 22:10 by qishenghe for init
+ */
+public enum UnlistedDictCodePolicy {
+
+    /**
+     * 拒绝（查询时抛出异常）
+     */
+    REJECT,
+
+    /**
+     * 按需加载（首次查询时只加载该字典，成功后加入加载范围，之后随刷新一并加载；并发查询共用一次加载，是否等待按未就绪查询策略）
+     */
+    LAZY_LOAD
+
+}
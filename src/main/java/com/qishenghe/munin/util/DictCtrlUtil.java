@@ -4,12 +4,17 @@ import com.qishenghe.munin.cache.pack.DictEntity;
 import com.qishenghe.munin.cache.pack.DictSinglePack;
 import com.qishenghe.munin.kit.CloneUtil;
 import com.qishenghe.munin.session.MuninSession;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 字典控制工具
@@ -51,33 +56,114 @@ public class DictCtrlUtil {
      */
     public static final boolean DEFAULT_READONLY = false;
 
+    /**
+     * 字典句柄（字典编码 - 句柄）
+     */
+    @Getter(AccessLevel.NONE)
+    private final transient Map<String, DictHandle> dictHandles = new ConcurrentHashMap<>();
+
+    /**
+     * 未命中计数（字典编码 - 次数）
+     */
+    @Getter(AccessLevel.NONE)
+    private final transient Map<String, LongAdder> missCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 获取字典句柄（句柄跨刷新有效，适合固定指向同一字典的高频查询）
+     *
+     * @param dictCode 字典编码
+     * @return 字典句柄
+     */
+    public DictHandle getDictHandle(String dictCode) {
+        DictHandle handle = dictHandles.get(dictCode);
+        if (handle == null) {
+            // 加载范围校验（范围外的字典按会话策略拒绝或按需加载）
+            muninSession.requireDictCode(dictCode);
+            handle = dictHandles.computeIfAbsent(dictCode, key -> new DictHandle(key, this));
+        }
+        return handle;
+    }
+
+    /**
+     * 获取指定字典的未命中次数（字典不存在、编码不存在均计入）
+     *
+     * @param dictCode 字典编码
+     * @return 未命中次数
+     */
+    public long getMissCount(String dictCode) {
+        LongAdder counter = missCounters.get(dictCode);
+        return counter == null ? 0L : counter.sum();
+    }
+
+    /**
+     * 获取全部字典的未命中次数（快照），用于定位上游脏数据来源
+     *
+     * @return 字典编码 - 未命中次数
+     */
+    public Map<String, Long> getMissCounts() {
+        Map<String, Long> result = new HashMap<>(missCounters.size() << 1);
+        missCounters.forEach((dictCode, counter) -> result.put(dictCode, counter.sum()));
+        return result;
+    }
+
+    /**
+     * 清零未命中计数
+     */
+    public void resetMissCounts() {
+        missCounters.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * 【封装】获取指定字典的未命中计数器
+     *
+     * @param dictCode 字典编码
+     * @return 计数器
+     */
+    LongAdder missCounter(String dictCode) {
+        LongAdder counter = missCounters.get(dictCode);
+        if (counter == null) {
+            counter = missCounters.computeIfAbsent(dictCode, key -> new LongAdder());
+        }
+        return counter;
+    }
+
     /**
      * 根据字典编码获取字典中的全部键值对【有序】
+     * 注：只读模式下返回缓存的只读视图
      * 
      * @param dictCode 字典编码
-     * @return 键值对【List】
+     * @return 键值对【List】（字典不存在时返回空集合）
      */
     public List<DictEntity> getPairsListByDictCode(String dictCode) {
-        DictSinglePack singleDict = muninSession.getDictPack().getDictPack().get(dictCode);
-        if (readOnly) {
+        DictSinglePack singleDict = getDictHandle(dictCode).resolve();
+        if (singleDict == null) {
+            return new ArrayList<>();
+        } else if (readOnly) {
             return singleDict.getDictList();
+        } else if (singleDict.isOffHeap()) {
+            return new ArrayList<>(singleDict.getDictList());
         } else {
-            return CloneUtil.deepCopy(singleDict.getDictList());
+            return CloneUtil.copy(singleDict.getDictList());
         }
     }
 
     /**
      * 根据字典编码获取字典中的全部键值对【无序】
+     * 注：只读模式下返回缓存的只读视图
      * 
      * @param dictCode 字典编码
-     * @return 键值对【Map】
+     * @return 键值对【Map】（字典不存在时返回空集合）
      */
     public Map<String, DictEntity> getPairsMapByDictCode(String dictCode) {
-        DictSinglePack singleDict = muninSession.getDictPack().getDictPack().get(dictCode);
-        if (readOnly) {
+        DictSinglePack singleDict = getDictHandle(dictCode).resolve();
+        if (singleDict == null) {
+            return new HashMap<>();
+        } else if (readOnly) {
             return singleDict.getDictMap();
+        } else if (singleDict.isOffHeap()) {
+            return new HashMap<>(singleDict.getDictMap());
         } else {
-            return CloneUtil.deepCopy(singleDict.getDictMap());
+            return CloneUtil.copy(singleDict.getDictMap());
         }
     }
 
@@ -86,15 +172,22 @@ public class DictCtrlUtil {
      * 
      * @param dictCode 字典编码
      * @param code 编码（键）
-     * @return 目标实体
+     * @return 目标实体（字典或编码不存在时返回null，并计入未命中）
      */
     public DictEntity getDictInfoByCode(String dictCode, String code) {
-        DictSinglePack singleDict = muninSession.getDictPack().getDictPack().get(dictCode);
-        if (readOnly) {
-            return singleDict.getDictMap().get(code);
-        } else {
-            return CloneUtil.deepCopy(singleDict.getDictMap().get(code));
-        }
+        return getDictHandle(dictCode).getDictInfoByCode(code);
+    }
+
+    /**
+     * 根据字典编码与整型编码（键）获取指定实体
+     * 注：整型编码字典走整型索引，无装箱、无字符串转换
+     *
+     * @param dictCode 字典编码
+     * @param code 编码（键）
+     * @return 目标实体（字典或编码不存在时返回null，并计入未命中）
+     */
+    public DictEntity getDictInfoByCode(String dictCode, int code) {
+        return getDictHandle(dictCode).getDictInfoByCode(code);
     }
 
     /**
@@ -103,11 +196,14 @@ public class DictCtrlUtil {
      * @param dictCode 字典编码
      * @param meaning 含义（值）
      * @param dim 是否模糊匹配（true：模糊匹配，false：等值校验）
-     * @return 目标实体（多值可能）
+     * @return 目标实体（多值可能；字典不存在时返回空集合）
      */
     public List<DictEntity> getDictInfoByMeaning(String dictCode, String meaning, boolean dim) {
 
-        DictSinglePack singleDict = muninSession.getDictPack().getDictPack().get(dictCode);
+        DictSinglePack singleDict = getDictHandle(dictCode).resolve();
+        if (singleDict == null) {
+            return new ArrayList<>();
+        }
         List<DictEntity> singleDictList = singleDict.getDictList();
 
         List<DictEntity> resultList = new ArrayList<>();
@@ -131,10 +227,55 @@ public class DictCtrlUtil {
                 }
             }
         }
-        if (readOnly) {
+        if (readOnly || singleDict.isOffHeap()) {
+            return resultList;
+        } else {
+            return CloneUtil.copy(resultList);
+        }
+    }
+
+    /**
+     * 根据字典编码与扩展属性值获取实体
+     * 注：在构建配置中声明了索引的属性走索引查询，其余属性逐条解析扩展信息
+     *
+     * @param dictCode 字典编码
+     * @param key 扩展属性
+     * @param value 属性值
+     * @return 目标实体（多值可能，按sortNum排序；字典不存在时返回空集合）
+     */
+    public List<DictEntity> getDictInfoByExpand(String dictCode, String key, String value) {
+        DictSinglePack singleDict = getDictHandle(dictCode).resolve();
+        if (singleDict == null) {
+            return new ArrayList<>();
+        }
+        List<DictEntity> resultList = singleDict.getDictEntityByExpand(key, value);
+        if (readOnly || singleDict.isOffHeap()) {
+            return resultList;
+        } else {
+            return CloneUtil.copy(resultList);
+        }
+    }
+
+    /**
+     * 根据字典编码与扩展属性值区间获取实体（闭区间）
+     * 注：属性值全部为数值时按数值比较，否则按字符串比较
+     *
+     * @param dictCode 字典编码
+     * @param key 扩展属性
+     * @param from 下界（null：无下界）
+     * @param to 上界（null：无上界）
+     * @return 目标实体（多值可能，按sortNum排序；字典不存在时返回空集合）
+     */
+    public List<DictEntity> getDictInfoByExpandRange(String dictCode, String key, String from, String to) {
+        DictSinglePack singleDict = getDictHandle(dictCode).resolve();
+        if (singleDict == null) {
+            return new ArrayList<>();
+        }
+        List<DictEntity> resultList = singleDict.getDictEntityByExpandRange(key, from, to);
+        if (readOnly || singleDict.isOffHeap()) {
             return resultList;
         } else {
-            return CloneUtil.deepCopy(resultList);
+            return CloneUtil.copy(resultList);
         }
     }
 
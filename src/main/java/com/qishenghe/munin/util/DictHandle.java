@@ -0,0 +1,144 @@
+package com.qishenghe.munin.util;
+
+import com.qishenghe.munin.cache.pack.DictEntity;
+import com.qishenghe.munin.cache.pack.DictPack;
+import com.qishenghe.munin.cache.pack.DictSinglePack;
+import com.qishenghe.munin.kit.CloneUtil;
+import com.qishenghe.munin.session.MuninSession;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 字典句柄（预解析的字典指向）
+ * 注：句柄跨刷新有效；缓存容器未切换时只需一次volatile读即可拿到当前字典，切换后首次访问重新解析
+ *
+ * @author qishenghe
+ * @date 2026/10/19 17:10
+ * @change 2026/10/19 17:10 by qishenghe for init
+ */
+public class DictHandle {
+
+    /**
+     * 字典编码
+     */
+    private final String dictCode;
+
+    /**
+     * 字典控制工具
+     */
+    private final DictCtrlUtil dictCtrlUtil;
+
+    /**
+     * 未命中计数器
+     */
+    private final LongAdder missCounter;
+
+    /**
+     * 最近一次解析结果（不可变对象，无需volatile）
+     */
+    private Resolved resolved;
+
+    /**
+     * 构造
+     *
+     * @param dictCode 字典编码
+     * @param dictCtrlUtil 字典控制工具
+     */
+    DictHandle(String dictCode, DictCtrlUtil dictCtrlUtil) {
+        this.dictCode = dictCode;
+        this.dictCtrlUtil = dictCtrlUtil;
+        this.missCounter = dictCtrlUtil.missCounter(dictCode);
+    }
+
+    /**
+     * 字典编码
+     *
+     * @return 字典编码
+     */
+    public String getDictCode() {
+        return dictCode;
+    }
+
+    /**
+     * 解析为当前缓存容器中的字典
+     * 注：未命中时不缓存，每次重新校验加载范围（失败的按需加载在此重试；已在范围内时只是一次集合查询）
+     *
+     * @return 字典（不存在时返回null）
+     */
+    public DictSinglePack resolve() {
+        MuninSession muninSession = dictCtrlUtil.getMuninSession();
+        DictPack current = muninSession.getServingDictPack();
+        Resolved last = this.resolved;
+        if (last != null && last.dictPack == current) {
+            return last.singlePack;
+        }
+        DictSinglePack singlePack = current == null ? null : current.getDictSinglePack(dictCode);
+        if (singlePack == null) {
+            muninSession.requireDictCode(dictCode);
+            current = muninSession.getServingDictPack();
+            singlePack = current == null ? null : current.getDictSinglePack(dictCode);
+        }
+        if (singlePack != null) {
+            this.resolved = new Resolved(current, singlePack);
+        }
+        return singlePack;
+    }
+
+    /**
+     * 根据编码（键）获取指定实体
+     *
+     * @param code 编码（键）
+     * @return 目标实体（不存在时返回null，并计入未命中）
+     */
+    public DictEntity getDictInfoByCode(String code) {
+        DictSinglePack singleDict = resolve();
+        DictEntity dictEntity = singleDict == null ? null : singleDict.getDictEntity(code);
+        return result(singleDict, dictEntity);
+    }
+
+    /**
+     * 根据整型编码（键）获取指定实体
+     *
+     * @param code 编码（键）
+     * @return 目标实体（不存在时返回null，并计入未命中）
+     */
+    public DictEntity getDictInfoByCode(int code) {
+        DictSinglePack singleDict = resolve();
+        DictEntity dictEntity = singleDict == null ? null : singleDict.getDictEntity(code);
+        return result(singleDict, dictEntity);
+    }
+
+    /**
+     * 记录一次未命中
+     */
+    void recordMiss() {
+        missCounter.increment();
+    }
+
+    /**
+     * 【封装】处理查询结果（未命中计数、非只读模式拷贝；堆外存储的实体本身即为副本）
+     */
+    private DictEntity result(DictSinglePack singleDict, DictEntity dictEntity) {
+        if (dictEntity == null) {
+            missCounter.increment();
+            return null;
+        }
+        return dictCtrlUtil.isReadOnly() || singleDict.isOffHeap() ? dictEntity : CloneUtil.copy(dictEntity);
+    }
+
+    /**
+     * 解析结果
+     */
+    private static final class Resolved {
+
+        private final DictPack dictPack;
+
+        private final DictSinglePack singlePack;
+
+        private Resolved(DictPack dictPack, DictSinglePack singlePack) {
+            this.dictPack = dictPack;
+            this.singlePack = singlePack;
+        }
+    }
+
+}
@@ -1,14 +1,17 @@
 package com.qishenghe.munin.util;
 
-import com.qishenghe.munin.cache.pack.DictEntity;
+import com.qishenghe.munin.cache.pack.DictSinglePack;
 import com.qishenghe.munin.session.MuninSession;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 /**
  * 字典数据转换工具
@@ -20,11 +23,22 @@ import java.util.stream.Collectors;
 @Data
 public class DictTransUtil {
 
+    /**
+     * 编码不存在标记（按引用比较，区分“编码不存在”与“含义为空”）
+     */
+    private static final String MISSING = new String("");
+
     /**
      * MuninSession
      */
     private transient MuninSession muninSession;
 
+    /**
+     * 转换计划（类 - 转换计划）
+     */
+    @Getter(AccessLevel.NONE)
+    private final transient Map<Class<?>, TransPlan> transPlans = new ConcurrentHashMap<>();
+
     /**
      * 构造
      *
@@ -50,92 +64,24 @@ public class DictTransUtil {
         if (result == null) {
             return;
         }
-        if (dictPoint == null) {
-            dictPoint = new HashMap<>(0);
-        }
+        boolean pointed = dictPoint != null && !dictPoint.isEmpty();
 
-        // 获取类属性，转Map（key：属性名，value：属性对象）
-//        Map<String, Field> fieldMap = getObjectFieldMap(result);
-        // 获取类属性，转Map（key：类路径|属性名，value：属性对象）
-        Map<String, Field> fieldMap = getAllFieldMap(result.getClass(), -1);
+        // 转换计划（按类缓存，属性、注解、覆盖指向属性只解析一次；字典句柄在转换时获取，加载范围校验不影响计划生成）
+        TransPlan transPlan = getTransPlan(result.getClass());
 
-        for (String fieldKey : fieldMap.keySet()) {
-            // 当前属性
-            Field field = fieldMap.get(fieldKey);
+        // 无指向map时只需遍历被注解修饰的属性
+        for (TransField transField : pointed ? transPlan.allFields : transPlan.pointFields) {
             // 字典编码
-            String dictCode = null;
-            if (dictPoint.containsKey(field.getName())) {
+            String dictCode = transField.dictCode;
+            if (pointed && dictPoint.containsKey(transField.field.getName())) {
                 // 指向map中存在该属性
-                dictCode = dictPoint.get(field.getName());
-            } else {
-                // 指向map中不存在
-                if (field.isAnnotationPresent(MuninPoint.class)) {
-                    // 被字典指向注解所修饰
-                    if (!StringUtils.isEmpty(field.getAnnotation(MuninPoint.class).dictCode())) {
-                        dictCode = field.getAnnotation(MuninPoint.class).dictCode();
-                    }
-                }
+                dictCode = dictPoint.get(transField.field.getName());
             }
 
             try {
                 if (dictCode != null) {
-                    // 需要进行转换
-                    field.setAccessible(true);
-                    String code = field.get(result) == null ? null : field.get(result).toString();
-                    if (code != null) {
-                        // 获取meaning
-                        String meaning = getMeaningByCode(dictCode, code);
-                        String beforeTransSplitSymbol = field.getAnnotation(MuninPoint.class).beforeTransSplitSymbol();
-                        if (StringUtils.isNotEmpty(beforeTransSplitSymbol)) {
-                                //表明有字段值为1，2，3，4
-                                String symbol = field.getAnnotation(MuninPoint.class).beforeTransSplitSymbol();
-                                String[] split = code.split(symbol);
-                                List<String> meaningListTemp = new ArrayList<>();
-                                // 获取meaning
-                                if (split != null && split.length != 0) {
-                                    for (int i = 0; i < split.length; i++) {
-                                        String meaningByCode = getMeaningByCode(dictCode, split[i]);
-                                        meaningListTemp.add(meaningByCode);
-                                    }
-                                    String afterTransSplitSymbol = field.getAnnotation(MuninPoint.class).afterTransSplitSymbol();
-                                    meaning  = String.join(afterTransSplitSymbol, meaningListTemp);
-                                }
-                        }
-                        // 执行转换
-                        if (field.isAnnotationPresent(MuninPoint.class)) {
-                            // 存在指向注解，根据注解中的指示进行转换覆盖
-
-                            // 转换前code覆盖指向，转换后meaning覆盖指向
-                            String beforeTransCopyTo = field.getAnnotation(MuninPoint.class).beforeTransCopyTo();
-                            String overTransCopyTo = field.getAnnotation(MuninPoint.class).overTransCopyTo();
-
-                            if (StringUtils.isEmpty(beforeTransCopyTo) && StringUtils.isEmpty(overTransCopyTo)) {
-                                // 转换前指向与转换后指向字段均为空，则直接覆盖原值
-                                field.set(result, meaning);
-                            } else {
-                                // 转换前覆盖指向空值修正（修改覆盖指向为当前字段）
-                                if (StringUtils.isEmpty(beforeTransCopyTo)) {
-                                    beforeTransCopyTo = field.getName();
-                                }
-                                // 转换后覆盖指向空值修正（修改覆盖指向为当前字段）
-                                if (StringUtils.isEmpty(overTransCopyTo)) {
-                                    overTransCopyTo = field.getName();
-                                }
-                                // 转换后Meaning保留优先级高于原值，所以先赋值转换前Code，后赋值转换后Meaning，防止转换后结果被Code覆盖
-                                Field beforeTransCopyToField = fieldMap.get(field.getDeclaringClass().getName() + "|" + beforeTransCopyTo);
-                                Field overTransCopyToField = fieldMap.get(field.getDeclaringClass().getName() + "|" + overTransCopyTo);
-                                // 设为可修改
-                                beforeTransCopyToField.setAccessible(true);
-                                overTransCopyToField.setAccessible(true);
-                                // 顺序修改
-                                beforeTransCopyToField.set(result, field.get(result));
-                                overTransCopyToField.set(result, meaning);
-                            }
-                        } else {
-                            // 未找到指向注解，直接覆盖原值
-                            field.set(result, meaning);
-                        }
-                    }
+                    // 需要进行转换（字典句柄获取失败，如不在加载范围内时，保留原值）
+                    transField(result, transField, muninSession.getDictCtrlUtil().getDictHandle(dictCode));
                 }
             } catch (Exception ignored) {
                 // 转换时异常，冷处理
@@ -143,6 +89,181 @@ public class DictTransUtil {
         }
     }
 
+    /**
+     * 【封装】转换单个属性（编码不在字典中时保留原值）
+     *
+     * @param result     结果
+     * @param transField 属性转换计划
+     * @param dictHandle 字典句柄
+     * @throws IllegalAccessException 属性访问异常
+     */
+    private void transField(Object result, TransField transField, DictHandle dictHandle) throws IllegalAccessException {
+
+        DictSinglePack singleDict = dictHandle.resolve();
+        if (singleDict == null) {
+            dictHandle.recordMiss();
+            return;
+        }
+        Field field = transField.field;
+
+        // 获取meaning（只读取含义，不生成实体）
+        String meaning;
+        if (transField.beforeTransSplitSymbol == null) {
+            if (transField.primitiveInt) {
+                // 基本类型int，走整型索引（不装箱）
+                meaning = singleDict.getMeaningOrDefault(field.getInt(result), MISSING);
+            } else {
+                Object codeValue = field.get(result);
+                if (codeValue == null) {
+                    return;
+                }
+                meaning = codeValue instanceof Integer
+                                ? singleDict.getMeaningOrDefault(((Integer) codeValue).intValue(), MISSING)
+                                : singleDict.getMeaningOrDefault(codeValue.toString(), MISSING);
+            }
+            if (meaning == MISSING) {
+                dictHandle.recordMiss();
+                return;
+            }
+        } else {
+            //表明有字段值为1，2，3，4
+            Object codeValue = field.get(result);
+            if (codeValue == null) {
+                return;
+            }
+            String[] split = codeValue.toString().split(transField.beforeTransSplitSymbol);
+            List<String> meaningListTemp = new ArrayList<>(split.length);
+            for (String code : split) {
+                String single = singleDict.getMeaningOrDefault(code, MISSING);
+                if (single == MISSING) {
+                    dictHandle.recordMiss();
+                    return;
+                }
+                meaningListTemp.add(single);
+            }
+            meaning = String.join(transField.afterTransSplitSymbol, meaningListTemp);
+        }
+
+        // 执行转换
+        if (transField.overTransCopyToField == null) {
+            // 无覆盖指向，直接覆盖原值
+            field.set(result, meaning);
+        } else {
+            // 转换后Meaning保留优先级高于原值，所以先赋值转换前Code，后赋值转换后Meaning，防止转换后结果被Code覆盖
+            if (transField.beforeTransCopyToField != field) {
+                transField.beforeTransCopyToField.set(result, field.get(result));
+            }
+            transField.overTransCopyToField.set(result, meaning);
+        }
+    }
+
+    /**
+     * 【封装】获取转换计划
+     *
+     * @param clazz 类
+     * @return 转换计划
+     */
+    private TransPlan getTransPlan(Class<?> clazz) {
+        TransPlan transPlan = transPlans.get(clazz);
+        if (transPlan == null) {
+            transPlan = transPlans.computeIfAbsent(clazz, this::createTransPlan);
+        }
+        return transPlan;
+    }
+
+    /**
+     * 【封装】生成转换计划
+     *
+     * @param clazz 类
+     * @return 转换计划
+     */
+    private TransPlan createTransPlan(Class<?> clazz) {
+
+        // 获取类属性，转Map（key：类路径|属性名，value：属性对象）
+        Map<String, Field> fieldMap = getAllFieldMap(clazz, -1);
+
+        TransPlan transPlan = new TransPlan();
+        for (Field field : fieldMap.values()) {
+            TransField transField = createTransField(field, fieldMap);
+            if (transField != null) {
+                transPlan.allFields.add(transField);
+                if (transField.dictCode != null) {
+                    transPlan.pointFields.add(transField);
+                }
+            }
+        }
+        for (Field field : clazz.getDeclaredFields()) {
+            if (makeAccessible(field)) {
+                transPlan.declaredFields.add(field);
+            }
+        }
+        return transPlan;
+    }
+
+    /**
+     * 【封装】生成属性转换计划
+     *
+     * @param field    属性
+     * @param fieldMap 类属性（key：类路径|属性名）
+     * @return 属性转换计划（属性不可访问或覆盖指向不存在时返回null）
+     */
+    private TransField createTransField(Field field, Map<String, Field> fieldMap) {
+        if (!makeAccessible(field)) {
+            return null;
+        }
+        TransField transField = new TransField();
+        transField.field = field;
+        transField.primitiveInt = field.getType() == int.class;
+
+        MuninPoint muninPoint = field.getAnnotation(MuninPoint.class);
+        if (muninPoint != null) {
+            // 被字典指向注解所修饰
+            if (!StringUtils.isEmpty(muninPoint.dictCode())) {
+                transField.dictCode = muninPoint.dictCode();
+            }
+            if (StringUtils.isNotEmpty(muninPoint.beforeTransSplitSymbol())) {
+                transField.beforeTransSplitSymbol = muninPoint.beforeTransSplitSymbol();
+                transField.afterTransSplitSymbol = muninPoint.afterTransSplitSymbol();
+            }
+            // 转换前code覆盖指向，转换后meaning覆盖指向
+            String beforeTransCopyTo = muninPoint.beforeTransCopyTo();
+            String overTransCopyTo = muninPoint.overTransCopyTo();
+            if (StringUtils.isNotEmpty(beforeTransCopyTo) || StringUtils.isNotEmpty(overTransCopyTo)) {
+                // 覆盖指向空值修正（修改覆盖指向为当前字段）
+                if (StringUtils.isEmpty(beforeTransCopyTo)) {
+                    beforeTransCopyTo = field.getName();
+                }
+                if (StringUtils.isEmpty(overTransCopyTo)) {
+                    overTransCopyTo = field.getName();
+                }
+                Field beforeTransCopyToField = fieldMap.get(field.getDeclaringClass().getName() + "|" + beforeTransCopyTo);
+                Field overTransCopyToField = fieldMap.get(field.getDeclaringClass().getName() + "|" + overTransCopyTo);
+                if (beforeTransCopyToField == null || overTransCopyToField == null
+                                || !makeAccessible(beforeTransCopyToField) || !makeAccessible(overTransCopyToField)) {
+                    return null;
+                }
+                transField.beforeTransCopyToField = beforeTransCopyToField;
+                transField.overTransCopyToField = overTransCopyToField;
+            }
+        }
+        return transField;
+    }
+
+    /**
+     * 【封装】设为可访问
+     *
+     * @param field 属性
+     * @return 是否成功
+     */
+    private static boolean makeAccessible(Field field) {
+        try {
+            field.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
     /**
      * 编码根据字典向原值转换（递归处理用户自定义类型的属性）
      *
@@ -178,13 +299,7 @@ public class DictTransUtil {
         // 标记该对象已被处理
         overTransObjectSet.add(result);
 
-        Map<String, Field> fieldMap = getObjectFieldMap(result);
-
-        for (String fieldName : fieldMap.keySet()) {
-
-            Field field = fieldMap.get(fieldName);
-
-            field.setAccessible(true);
+        for (Field field : getTransPlan(result.getClass()).declaredFields) {
 
             try {
                 Object obj = field.get(result);
@@ -337,34 +452,38 @@ public class DictTransUtil {
     }
 
     /**
-     * 【封装】根据字典编码和编码（键）获取含义（值）
+     * 收集类中字典指向注解使用的字典编码（含各级父类的属性与方法参数）
      *
-     * @param dictCode 字典编码
-     * @param code     编码（键）
-     * @return 含义（值）
-     * @author qishenghe
-     * @date 2021/6/8 10:40
-     * @change 2021/6/8 10:40 by qishenghe for init
-     * @since 1.0.0
+     * @param classes 类
+     * @return 字典编码
      */
-    private String getMeaningByCode(String dictCode, String code) {
-        DictEntity dictEntity = muninSession.getDictCtrlUtil().getDictInfoByCode(dictCode, code);
-        return dictEntity.getMeaning();
+    public static Set<String> scanDictCodes(Class<?>... classes) {
+        Set<String> dictCodes = new TreeSet<>();
+        for (Class<?> clazz : classes) {
+            for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    addDictCode(dictCodes, field.getAnnotation(MuninPoint.class));
+                }
+                for (Method method : current.getDeclaredMethods()) {
+                    for (Annotation[] annotations : method.getParameterAnnotations()) {
+                        for (Annotation annotation : annotations) {
+                            if (annotation instanceof MuninPoint) {
+                                addDictCode(dictCodes, (MuninPoint) annotation);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return dictCodes;
     }
 
     /**
-     * 【封装】将对象的属性置入Map中，避免遍历
-     *
-     * @param object obj
-     * @return Map(Obj Name - Obj)
+     * 【封装】记录注解中的字典编码
      */
-    private static Map<String, Field> getObjectFieldMap(Object object) {
-        // 获取所有属性
-        Field[] fields = object.getClass().getDeclaredFields();
-        if (fields != null && fields.length != 0) {
-            return Arrays.stream(fields).collect(Collectors.toMap(Field::getName, t -> t));
-        } else {
-            return new HashMap<>(0);
+    private static void addDictCode(Set<String> dictCodes, MuninPoint muninPoint) {
+        if (muninPoint != null && !StringUtils.isEmpty(muninPoint.dictCode())) {
+            dictCodes.add(muninPoint.dictCode());
         }
     }
 
@@ -421,4 +540,66 @@ public class DictTransUtil {
         return resultMap;
     }
 
+    /**
+     * 转换计划（单个类）
+     */
+    private static final class TransPlan {
+
+        /**
+         * 全部属性（含父类）
+         */
+        private final List<TransField> allFields = new ArrayList<>();
+
+        /**
+         * 被字典指向注解修饰的属性
+         */
+        private final List<TransField> pointFields = new ArrayList<>();
+
+        /**
+         * 本类声明的属性（递归处理自定义类型属性时使用）
+         */
+        private final List<Field> declaredFields = new ArrayList<>();
+    }
+
+    /**
+     * 属性转换计划
+     */
+    private static final class TransField {
+
+        /**
+         * 属性
+         */
+        private Field field;
+
+        /**
+         * 是否为基本类型int
+         */
+        private boolean primitiveInt;
+
+        /**
+         * 注解指向的字典编码【null_maybe】
+         */
+        private String dictCode;
+
+        /**
+         * 转义前分隔符【null_maybe】
+         */
+        private String beforeTransSplitSymbol;
+
+        /**
+         * 转义后分隔符
+         */
+        private String afterTransSplitSymbol;
+
+        /**
+         * 转换前code覆盖指向【null_maybe】
+         */
+        private Field beforeTransCopyToField;
+
+        /**
+         * 转换后meaning覆盖指向【null_maybe】
+         */
+        private Field overTransCopyToField;
+    }
+
 }